@@ -1,60 +1,140 @@
 package com.nectum.tradingv25.cache;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.nectum.tradingv25.exception.InvalidIndicatorException;
+import com.nectum.tradingv25.indicator.ta4j.IndicatorFactory;
 import com.nectum.tradingv25.indicator.ta4j.Ta4jIndicatorService;
-import com.nectum.tradingv25.model.entity.HistoricalData;
-import com.nectum.tradingv25.repository.HistoricalDataRepository;
-import lombok.RequiredArgsConstructor;
+import com.nectum.tradingv25.model.response.SeriesCacheStats;
+import com.nectum.tradingv25.repository.HistoricalBarReader;
+import com.nectum.tradingv25.series.BarStore;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Indicator;
 import org.ta4j.core.num.Num;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Cachea en memoria:
- *  - BarSeries (todos los datos históricos) por cada idnectum.
- *  - Indicadores (ej. RSI(14), maxh, etc.) construidos sobre esa BarSeries.
+ *  - BarStore columnar (todos los datos históricos) por cada idnectum, expuesto como BarSeries.
+ *  - Indicadores (ej. RSI(14), maxh, etc.) ya calculados sobre esa BarSeries, compartidos entre
+ *    todas las peticiones.
+ *
+ * La caché de series está acotada por número total de barras (series.cache.max-bars; cada barra
+ * ocupa ~48 bytes en columnas). La carga es single-flight: peticiones concurrentes por el mismo
+ * idnectum esperan a una única lectura de Mongo.
+ *
+ * Los indicadores van en una segunda caché acotada por número de valores calculados
+ * (indicator.cache.max-values), con clave (idnectum, indicador normalizado, periodo, versión de
+ * la serie). La versión cambia cada vez que la serie se carga de Mongo, así que un indicador nunca
+ * se sirve sobre datos distintos de los que lo calcularon; al expulsar una serie se invalidan
+ * sus indicadores.
+ *
+ * Las series cacheadas se actualizan con {@link #refresh}/{@link #refreshAll}, que solo leen las
+ * barras nuevas, en lugar de expulsarlas y recargar todo el histórico. Para casi todos los
+ * indicadores las barras nuevas no cambian los valores ya calculados (dependen solo de barras
+ * anteriores) y se extienden en lugar de invalidarse; los que miran hacia delante
+ * (IndicatorFactory.readsAhead, p. ej. chikou_span) se descartan y se crean de nuevo al pedirlos.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class SeriesCacheService {
 
-    private final HistoricalDataRepository historicalDataRepository;
+    private final HistoricalBarReader historicalBarReader;
     private final Ta4jIndicatorService ta4jIndicatorService;
 
     /**
-     * Mapa principal: idnectum -> BarSeries con todos los datos (ej. desde 1990 a 2025).
+     * idnectum -> entrada con el BarStore completo (ej. desde 1990 a 2025) y sus indicadores.
      */
-    private final Map<Long, BarSeries> barSeriesMap = new ConcurrentHashMap<>();
+    private final Cache<Long, CachedSeries> seriesCache;
 
     /**
-     * Mapa de indicadores: clave construida en base a (idnectum + nombre + periodo + etc.) -> Indicator
-     * Ejemplo de clave: "7376|RSI|14"
+     * (idnectum, indicador, periodo, versión) -> indicador calculado sobre esa serie.
      */
-    private final Map<String, Indicator<Num>> indicatorMap = new ConcurrentHashMap<>();
+    private final Cache<IndicatorKey, Indicator<Num>> indicatorCache;
+
+    public SeriesCacheService(HistoricalBarReader historicalBarReader,
+                              Ta4jIndicatorService ta4jIndicatorService,
+                              @Value("${series.cache.max-bars:5000000}") long maxBars,
+                              @Value("${series.cache.expire-after-access-minutes:0}") long expireAfterAccessMinutes,
+                              @Value("${indicator.cache.max-values:20000000}") long maxIndicatorValues) {
+        this.historicalBarReader = historicalBarReader;
+        this.ta4jIndicatorService = ta4jIndicatorService;
+
+        Caffeine<Long, CachedSeries> builder = Caffeine.newBuilder()
+                .maximumWeight(maxBars)
+                // Peso = barras del almacén (mínimo 1 para que las series vacías también cuenten)
+                .weigher((Long idnectum, CachedSeries entry) -> Math.max(1, entry.store.size()))
+                .removalListener((Long idnectum, CachedSeries entry, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        log.info("Serie idnectum {} expulsada de la caché ({}, {} barras)",
+                                idnectum, cause, entry != null ? entry.store.size() : 0);
+                    }
+                    // Sus indicadores ya no se pueden pedir (la próxima carga tendrá otra versión);
+                    // REPLACED es el recálculo de peso de refresh, la entrada sigue en caché
+                    if (entry != null && cause != RemovalCause.REPLACED) {
+                        invalidateIndicators(entry);
+                    }
+                })
+                .recordStats();
+        if (expireAfterAccessMinutes > 0) {
+            builder.expireAfterAccess(expireAfterAccessMinutes, TimeUnit.MINUTES);
+        }
+        this.seriesCache = builder.build();
+
+        this.indicatorCache = Caffeine.newBuilder()
+                .maximumWeight(maxIndicatorValues)
+                // Peso = valores que puede llegar a guardar (una por barra de la serie)
+                .weigher((IndicatorKey key, Indicator<Num> indicator) ->
+                        Math.max(1, indicator.getBarSeries().getEndIndex() + 1))
+                .removalListener((IndicatorKey key, Indicator<Num> indicator, RemovalCause cause) -> {
+                    if (key == null || cause == RemovalCause.REPLACED) {
+                        return;
+                    }
+                    CachedSeries entry = seriesCache.asMap().get(key.idnectum);
+                    if (entry != null && entry.version == key.version) {
+                        entry.indicatorKeys.remove(key);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
 
     // -------------------------------------------------------------
     // 1) OBTENER O CREAR SERIES
     // -------------------------------------------------------------
     public BarSeries getOrCreateSeries(Long idnectum) {
-        // Si ya existe en cache, lo devolvemos
-        if (barSeriesMap.containsKey(idnectum)) {
-            return barSeriesMap.get(idnectum);
-        }
-        // No existe => cargar TODO el histórico de Mongo y construir la serie
-        log.info("Cargando todo el histórico para idnectum {} desde Mongo...", idnectum);
-        List<HistoricalData> allData = historicalDataRepository.findAllByIdnectumOrderByFechaAsc(idnectum);
-        BarSeries series = ta4jIndicatorService.buildBarSeries("idnectum_" + idnectum, allData);
+        return getOrCreateStore(idnectum).asBarSeries();
+    }
 
-        // Guardamos en el mapa
-        barSeriesMap.put(idnectum, series);
+    public BarStore getOrCreateStore(Long idnectum) {
+        return getOrLoad(idnectum).store;
+    }
 
-        return series;
+    /**
+     * Serie completa del idnectum junto con su mapa de indicadores compartido entre peticiones.
+     */
+    public CachedSeries getOrLoad(Long idnectum) {
+        // Si no existe => cargar TODO el histórico de Mongo; el resto de hilos esperan a esta carga
+        return seriesCache.get(idnectum, id -> {
+            log.info("Cargando todo el histórico para idnectum {} desde Mongo...", id);
+            return new CachedSeries(historicalBarReader.readAll(id));
+        });
     }
 
     // -------------------------------------------------------------
@@ -65,42 +145,217 @@ public class SeriesCacheService {
                                                Integer period,
                                                // otros parámetros que necesites
                                                boolean isOtherIndicator) {
-        // Generar una clave para el mapa, e.g. "7376|rsi|14|other=false"
-        String key = buildIndicatorKey(idnectum, indicatorName, period, isOtherIndicator);
+        // Misma clave que usa el servicio de cálculo ("rsi: rsi_14"), para compartir la instancia;
+        // isOtherIndicator no cambia el valor del indicador
+        if (indicatorName == null) {
+            throw new InvalidIndicatorException("indicatorName no puede ser nulo");
+        }
+        return getOrCreateIndicator(getOrLoad(idnectum), indicatorName, period != null ? period : 0);
+    }
 
-        // Revisar si ya está en el cache
-        if (indicatorMap.containsKey(key)) {
-            return indicatorMap.get(key);
+    /**
+     * Indicador de la caché compartida para esta serie; si no está (o se expulsó) se crea sobre
+     * su BarSeries. Peticiones concurrentes por el mismo indicador esperan a una única creación.
+     */
+    public Indicator<Num> getOrCreateIndicator(CachedSeries entry, String indicatorName, int period) {
+        IndicatorKey key = new IndicatorKey(entry.store.getIdnectum(), indicatorName.trim().toLowerCase(),
+                period, entry.version);
+        return indicatorCache.get(key, k -> {
+            entry.indicatorKeys.add(k);
+            return ta4jIndicatorService.createIndicator(entry.store.asBarSeries(), indicatorName, period);
+        });
+    }
+
+    // -------------------------------------------------------------
+    // 3) REFRESCO INCREMENTAL
+    // -------------------------------------------------------------
+
+    /**
+     * Añade a la serie cacheada las barras nuevas de Mongo (fecha a partir del día siguiente a la
+     * última barra) y extiende sus indicadores hasta la nueva última barra. No carga series que no
+     * estén ya en caché.
+     *
+     * Los indicadores de ta4j son CachedIndicator: los valores ya calculados siguen siendo válidos
+     * y solo se calculan los índices nuevos, salvo en los que miran hacia delante
+     * (IndicatorFactory.readsAhead): sus últimas barras se calcularon como NaN por falta de barras
+     * futuras y se quedarían así, de modo que se expulsan de la caché de indicadores.
+     *
+     * @return número de barras añadidas
+     */
+    public int refresh(Long idnectum) {
+        // asMap().get: un refresco no cuenta como acierto en las estadísticas
+        CachedSeries entry = seriesCache.asMap().get(idnectum);
+        if (entry == null) {
+            return 0;
         }
-        // No está => construirlo
-        BarSeries series = getOrCreateSeries(idnectum);
+        int appended;
+        synchronized (entry) {
+            BarStore store = entry.store;
+            Date from = null;
+            if (!store.isEmpty()) {
+                long nextDay = store.epochDay(store.size() - 1) + 1;
+                from = Date.from(LocalDate.ofEpochDay(nextDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+            }
+            BarStore newBars = new BarStore(idnectum, 16);
+            historicalBarReader.readInto(newBars, idnectum, from, true, 0);
+            appended = newBars.size();
+            if (appended == 0) {
+                return 0;
+            }
 
-        // Podrías reusar tu IndicatorFactory o ta4jIndicatorService:
-        Indicator<Num> indicator = ta4jIndicatorService.createIndicator(series, indicatorName, period);
+            int firstNew = store.size();
+            store.appendAll(newBars);
 
-        // Guardarlo en el mapa
-        indicatorMap.put(key, indicator);
+            // Extender los indicadores ya construidos (desde la antigua última barra, que ta4j no cachea)
+            // y recalcular su peso con el nuevo número de barras
+            int endIndex = store.size() - 1;
+            for (IndicatorKey key : List.copyOf(entry.indicatorKeys)) {
+                Indicator<Num> indicator = indicatorCache.asMap().get(key);
+                if (indicator == null) {
+                    continue;
+                }
+                if (IndicatorFactory.readsAhead(key.indicator)) {
+                    indicatorCache.invalidate(key);
+                    continue;
+                }
+                for (int i = Math.max(0, firstNew - 1); i <= endIndex; i++) {
+                    indicator.getValue(i);
+                }
+                indicatorCache.asMap().replace(key, indicator, indicator);
+            }
+        }
+        // Recalcular el peso de la entrada con el nuevo número de barras
+        seriesCache.asMap().replace(idnectum, entry, entry);
+        log.debug("Serie idnectum {} refrescada: {} barras nuevas", idnectum, appended);
+        return appended;
+    }
 
-        return indicator;
+    /**
+     * Refresca todas las series cacheadas. Programado con series.cache.refresh-cron (por
+     * defecto cada hora; "-" lo desactiva y entonces las series cacheadas solo ven barras nuevas
+     * si expiran, series.cache.expire-after-access-minutes, o se expulsan a mano).
+     *
+     * @return número total de barras añadidas
+     */
+    @Scheduled(cron = "${series.cache.refresh-cron:0 15 * * * *}")
+    public long refreshAll() {
+        long start = System.currentTimeMillis();
+        long appended = 0;
+        int series = 0;
+        for (Long idnectum : List.copyOf(seriesCache.asMap().keySet())) {
+            try {
+                appended += refresh(idnectum);
+                series++;
+            } catch (RuntimeException e) {
+                log.error("Error refrescando la serie idnectum {}", idnectum, e);
+            }
+        }
+        log.info("Refresco de caché: {} series, {} barras nuevas en {} ms",
+                series, appended, System.currentTimeMillis() - start);
+        return appended;
     }
 
     // -------------------------------------------------------------
-    // 3) MÉTODOS DE AYUDA Y EVICIÓN
+    // 4) MÉTODOS DE AYUDA Y EVICIÓN
     // -------------------------------------------------------------
     public void evictSeries(Long idnectum) {
-        barSeriesMap.remove(idnectum);
-        // Opcionalmente eliminar los indicadores asociados a este idnectum
-        indicatorMap.keySet().removeIf(k -> k.startsWith(idnectum + "|"));
+        // Los indicadores del idnectum se eliminan con su entrada (removalListener)
+        seriesCache.invalidate(idnectum);
     }
 
     public void evictAll() {
-        barSeriesMap.clear();
-        indicatorMap.clear();
+        seriesCache.invalidateAll();
+        indicatorCache.invalidateAll();
+    }
+
+    private void invalidateIndicators(CachedSeries entry) {
+        indicatorCache.invalidateAll(List.copyOf(entry.indicatorKeys));
+        entry.indicatorKeys.clear();
+    }
+
+    public SeriesCacheStats stats() {
+        CacheStats stats = seriesCache.stats();
+        CacheStats indicatorStats = indicatorCache.stats();
+        long bars = 0;
+        for (CachedSeries entry : seriesCache.asMap().values()) {
+            bars += entry.store.size();
+        }
+        return SeriesCacheStats.builder()
+                .series(seriesCache.estimatedSize())
+                .bars(bars)
+                .indicators(indicatorCache.estimatedSize())
+                .maxBars(seriesCache.policy().eviction().map(e -> e.getMaximum()).orElse(-1L))
+                .indicatorValues(indicatorCache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L))
+                .maxIndicatorValues(indicatorCache.policy().eviction().map(e -> e.getMaximum()).orElse(-1L))
+                .indicatorHitCount(indicatorStats.hitCount())
+                .indicatorMissCount(indicatorStats.missCount())
+                .indicatorHitRate(indicatorStats.hitRate())
+                .indicatorEvictionCount(indicatorStats.evictionCount())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .loadSuccessCount(stats.loadSuccessCount())
+                .loadFailureCount(stats.loadFailureCount())
+                .averageLoadMillis(Duration.ofNanos((long) stats.averageLoadPenalty()).toMillis())
+                .totalLoadMillis(Duration.ofNanos(stats.totalLoadTime()).toMillis())
+                .evictionCount(stats.evictionCount())
+                .evictionWeight(stats.evictionWeight())
+                .build();
+    }
+
+    /**
+     * Serie de un idnectum. version identifica esta carga de Mongo en las claves de sus indicadores.
+     */
+    public static final class CachedSeries {
+        private static final AtomicLong VERSIONS = new AtomicLong();
+
+        private final BarStore store;
+        private final long version = VERSIONS.incrementAndGet();
+        /** Claves de indicatorCache creadas sobre esta serie (para extenderlas o invalidarlas). */
+        private final Set<IndicatorKey> indicatorKeys = ConcurrentHashMap.newKeySet();
+
+        private CachedSeries(BarStore store) {
+            this.store = store;
+        }
+
+        public BarStore getStore() {
+            return store;
+        }
+
+        public long getVersion() {
+            return version;
+        }
     }
 
-    private String buildIndicatorKey(Long idnectum, String name, Integer period, boolean isOther) {
-        // Ajusta a tu conveniencia. Separa con algún delimitador seguro, p.e. "|"
-        return String.format("%d|%s|%d|%b", idnectum, name != null ? name.toLowerCase() : "null",
-                period != null ? period : 0, isOther);
+    private static final class IndicatorKey {
+        private final Long idnectum;
+        private final String indicator;
+        private final int period;
+        private final long version;
+
+        private IndicatorKey(Long idnectum, String indicator, int period, long version) {
+            this.idnectum = idnectum;
+            this.indicator = indicator;
+            this.period = period;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IndicatorKey)) {
+                return false;
+            }
+            IndicatorKey other = (IndicatorKey) o;
+            return period == other.period && version == other.version
+                    && Objects.equals(idnectum, other.idnectum) && indicator.equals(other.indicator);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idnectum, indicator, period, version);
+        }
     }
 }
@@ -0,0 +1,82 @@
+package com.nectum.tradingv25.compression;
+
+import java.util.Locale;
+
+/**
+ * Codificaciones de la respuesta en streaming, negociadas con Accept-Encoding.
+ *
+ * - IDENTITY: sin comprimir.
+ * - GZIP: java.util.zip con el nivel de response.compression.gzip-level.
+ * - LZ4: formato frame de LZ4 (Lz4FrameOutputStream), Java puro: mucho menos CPU que gzip a
+ *   cambio de algo más de tamaño.
+ */
+public enum ContentCoding {
+    // En orden de preferencia con la misma q (gzip primero: es el que entiende cualquier cliente;
+    // para LZ4 el cliente lo pide con más q, p. ej. "lz4, gzip;q=0.5")
+    GZIP("gzip"),
+    LZ4("lz4"),
+    IDENTITY("identity");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Codificación con mayor q de Accept-Encoding (RFC 9110, 12.5.3). Sin cabecera: identity.
+     * "*" cubre las que no aparecen; identity se acepta salvo que se excluya (q=0).
+     */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return IDENTITY;
+        }
+        double[] quality = {-1, -1, -1};
+        double any = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if ("*".equals(name)) {
+                any = q;
+            } else if ("x-gzip".equals(name)) {
+                quality[GZIP.ordinal()] = q;
+            } else {
+                for (ContentCoding coding : values()) {
+                    if (coding.token.equals(name)) {
+                        quality[coding.ordinal()] = q;
+                    }
+                }
+            }
+        }
+
+        ContentCoding best = null;
+        double bestQ = 0;
+        for (ContentCoding coding : values()) {
+            double q = quality[coding.ordinal()];
+            if (q < 0) {
+                // No aparece: la q de "*" o, para identity, aceptable por defecto
+                q = any >= 0 ? any : (coding == IDENTITY ? 0.001 : 0);
+            }
+            if (q > bestQ) {
+                best = coding;
+                bestQ = q;
+            }
+        }
+        return best != null ? best : IDENTITY;
+    }
+}
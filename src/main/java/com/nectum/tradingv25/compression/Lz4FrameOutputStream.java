@@ -0,0 +1,288 @@
+package com.nectum.tradingv25.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Compresor LZ4 en formato frame (compatible con lz4 -d, python-lz4 lz4.frame, etc.), en Java
+ * puro: el proyecto no depende de lz4-java.
+ *
+ * - Bloques independientes de 64 KB sin checksum ni tamaño de contenido.
+ * - Compresión rápida tipo LZ4_compress_fast: tabla hash de 4 bytes, sin búsqueda de cadenas y
+ *   con salto creciente sobre datos que no comprimen. Un bloque que no gana se guarda sin comprimir.
+ * - flush() cierra el bloque en curso (el cliente puede descomprimir todo lo recibido);
+ *   finish() escribe la marca de fin sin cerrar el stream de destino.
+ */
+public class Lz4FrameOutputStream extends OutputStream {
+
+    private static final int MAGIC = 0x184D2204;
+    private static final int BLOCK_SIZE = 64 * 1024;
+    /** Versión 01, bloques independientes. */
+    private static final int FLG = 0x60;
+    /** Tamaño máximo de bloque 64 KB. */
+    private static final int BD = 0x40;
+    private static final int UNCOMPRESSED = 0x80000000;
+
+    private static final int MIN_MATCH = 4;
+    /** La última secuencia empieza al menos 12 bytes antes del final del bloque... */
+    private static final int MF_LIMIT = 12;
+    /** ...y los 5 últimos bytes son siempre literales. */
+    private static final int LAST_LITERALS = 5;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int HASH_LOG = 12;
+    private static final int SKIP_TRIGGER = 6;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BLOCK_SIZE];
+    private final byte[] compressed = new byte[4 + BLOCK_SIZE + BLOCK_SIZE / 255 + 16];
+    private final int[] hashTable = new int[1 << HASH_LOG];
+    private int length;
+    private boolean headerWritten;
+    private boolean finished;
+
+    public Lz4FrameOutputStream(OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (length == BLOCK_SIZE) {
+            writeBlock();
+        }
+        buffer[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (length == BLOCK_SIZE) {
+                writeBlock();
+            }
+            int n = Math.min(len, BLOCK_SIZE - length);
+            System.arraycopy(b, off, buffer, length, n);
+            length += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writeBlock();
+        out.flush();
+    }
+
+    /**
+     * Escribe el bloque pendiente y la marca de fin del frame. No cierra el stream de destino.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        writeBlock();
+        writeHeaderIfNeeded();
+        writeIntLE(compressed, 0, 0);
+        out.write(compressed, 0, 4);
+        out.flush();
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    private void writeHeaderIfNeeded() throws IOException {
+        if (headerWritten) {
+            return;
+        }
+        byte[] header = new byte[7];
+        writeIntLE(header, 0, MAGIC);
+        header[4] = (byte) FLG;
+        header[5] = (byte) BD;
+        header[6] = (byte) (XxHash32.hash(header, 4, 2, 0) >>> 8);
+        out.write(header);
+        headerWritten = true;
+    }
+
+    private void writeBlock() throws IOException {
+        if (finished) {
+            throw new IOException("Frame LZ4 ya terminado");
+        }
+        writeHeaderIfNeeded();
+        if (length == 0) {
+            return;
+        }
+        int size = compressBlock(buffer, length, compressed, 4);
+        if (size > 0 && size < length) {
+            writeIntLE(compressed, 0, size);
+            out.write(compressed, 0, 4 + size);
+        } else {
+            writeIntLE(compressed, 0, length | UNCOMPRESSED);
+            out.write(compressed, 0, 4);
+            out.write(buffer, 0, length);
+        }
+        length = 0;
+    }
+
+    /**
+     * Comprime src[0, srcLen) como un bloque LZ4 en dst desde dstOff. Devuelve los bytes escritos.
+     */
+    private int compressBlock(byte[] src, int srcLen, byte[] dst, int dstOff) {
+        int op = dstOff;
+        int anchor = 0;
+        if (srcLen > MF_LIMIT) {
+            Arrays.fill(hashTable, -1);
+            int limit = srcLen - MF_LIMIT;
+            int matchLimit = srcLen - LAST_LITERALS;
+            int ip = 0;
+            int misses = 1 << SKIP_TRIGGER;
+            while (ip < limit) {
+                int sequence = readInt(src, ip);
+                int h = hash(sequence);
+                int ref = hashTable[h];
+                hashTable[h] = ip;
+                if (ref < 0 || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    // Sin coincidencia: el salto crece con los fallos seguidos
+                    ip += misses++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                misses = 1 << SKIP_TRIGGER;
+
+                // Extender hacia atrás sobre los literales pendientes y hacia delante
+                while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+
+                op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op);
+                ip += matchLength;
+                anchor = ip;
+                if (ip < limit) {
+                    hashTable[hash(readInt(src, ip - 2))] = ip - 2;
+                }
+            }
+        }
+        return writeLastLiterals(src, anchor, srcLen - anchor, dst, op) - dstOff;
+    }
+
+    private static int writeSequence(byte[] src, int literalStart, int literalLength, int offset, int matchLength,
+                                     byte[] dst, int op) {
+        int tokenPos = op++;
+        int token;
+        if (literalLength >= 15) {
+            token = 15 << 4;
+            op = writeLength(literalLength - 15, dst, op);
+        } else {
+            token = literalLength << 4;
+        }
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        op += literalLength;
+
+        dst[op++] = (byte) offset;
+        dst[op++] = (byte) (offset >>> 8);
+
+        int extra = matchLength - MIN_MATCH;
+        if (extra >= 15) {
+            token |= 15;
+            op = writeLength(extra - 15, dst, op);
+        } else {
+            token |= extra;
+        }
+        dst[tokenPos] = (byte) token;
+        return op;
+    }
+
+    private static int writeLastLiterals(byte[] src, int literalStart, int literalLength, byte[] dst, int op) {
+        if (literalLength >= 15) {
+            dst[op++] = (byte) (15 << 4);
+            op = writeLength(literalLength - 15, dst, op);
+        } else {
+            dst[op++] = (byte) (literalLength << 4);
+        }
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        return op + literalLength;
+    }
+
+    private static int writeLength(int length, byte[] dst, int op) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    private static void writeIntLE(byte[] b, int i, int value) {
+        b[i] = (byte) value;
+        b[i + 1] = (byte) (value >>> 8);
+        b[i + 2] = (byte) (value >>> 16);
+        b[i + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * xxHash32, solo para el byte de checksum de la cabecera del frame.
+     */
+    static final class XxHash32 {
+        private static final int P1 = 0x9E3779B1;
+        private static final int P2 = 0x85EBCA77;
+        private static final int P3 = 0xC2B2AE3D;
+        private static final int P4 = 0x27D4EB2F;
+        private static final int P5 = 0x165667B1;
+
+        private XxHash32() {
+        }
+
+        static int hash(byte[] b, int off, int len, int seed) {
+            int end = off + len;
+            int i = off;
+            int h;
+            if (len >= 16) {
+                int v1 = seed + P1 + P2;
+                int v2 = seed + P2;
+                int v3 = seed;
+                int v4 = seed - P1;
+                while (i + 16 <= end) {
+                    v1 = Integer.rotateLeft(v1 + readInt(b, i) * P2, 13) * P1;
+                    v2 = Integer.rotateLeft(v2 + readInt(b, i + 4) * P2, 13) * P1;
+                    v3 = Integer.rotateLeft(v3 + readInt(b, i + 8) * P2, 13) * P1;
+                    v4 = Integer.rotateLeft(v4 + readInt(b, i + 12) * P2, 13) * P1;
+                    i += 16;
+                }
+                h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7)
+                        + Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+            } else {
+                h = seed + P5;
+            }
+            h += len;
+            while (i + 4 <= end) {
+                h = Integer.rotateLeft(h + readInt(b, i) * P3, 17) * P4;
+                i += 4;
+            }
+            while (i < end) {
+                h = Integer.rotateLeft(h + (b[i] & 0xFF) * P5, 11) * P1;
+                i++;
+            }
+            h ^= h >>> 15;
+            h *= P2;
+            h ^= h >>> 13;
+            h *= P3;
+            h ^= h >>> 16;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.nectum.tradingv25.compression;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresión y política de flush de las respuestas en streaming.
+ *
+ * La codificación se negocia por petición (ContentCoding.negotiate); el nivel de gzip y cuándo
+ * se vacía el stream hacia el cliente son configuración:
+ *  - bytes (por defecto): se vacía cada response.flush.bytes bytes sin comprimir y se ignoran los
+ *    flush() de quien escribe. Bloques de deflate grandes y pocas escrituras al socket.
+ *  - ticker: se respetan los flush() de quien escribe (uno por idnectum), para clientes que
+ *    procesan cada idnectum en cuanto llega.
+ *
+ * Con gzip, la versión paralela puede comprimir cada idnectum en su hilo de cálculo como un
+ * miembro gzip independiente (encodeMember) y escribirlo ya comprimido (writeMember): varios
+ * miembros concatenados son un gzip válido (RFC 1952, 2.2) y la compresión escala con los hilos
+ * en lugar de hacerse toda en el hilo de la respuesta.
+ */
+@Slf4j
+@Component
+public class ResponseEncoder {
+
+    public enum FlushPolicy {
+        BYTES,
+        TICKER
+    }
+
+    /**
+     * Tipo de las respuestas JSON normales (no en streaming). server.compression solo comprime
+     * este tipo: Tomcat compara el Content-Type por prefijo, así que el JSON en streaming
+     * (application/json sin charset), cuya codificación decide esta clase, queda fuera.
+     */
+    public static final String COMPRESSIBLE_JSON_VALUE = "application/json;charset=UTF-8";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int gzipLevel;
+    private final FlushPolicy flushPolicy;
+    private final int flushBytes;
+    private final boolean parallelMembers;
+
+    public ResponseEncoder(@Value("${response.compression.gzip-level:6}") int gzipLevel,
+                           @Value("${response.flush.policy:bytes}") String flushPolicy,
+                           @Value("${response.flush.bytes:65536}") int flushBytes,
+                           @Value("${response.compression.parallel-members:true}") boolean parallelMembers) {
+        if (gzipLevel < Deflater.BEST_SPEED || gzipLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("response.compression.gzip-level debe estar entre 1 y 9: " + gzipLevel);
+        }
+        this.gzipLevel = gzipLevel;
+        this.flushPolicy = FlushPolicy.valueOf(flushPolicy.trim().toUpperCase(Locale.ROOT));
+        this.flushBytes = Math.max(1, flushBytes);
+        this.parallelMembers = parallelMembers;
+        log.info("ResponseEncoder: gzip nivel {} (miembros en paralelo: {}), flush {} ({} bytes)",
+                gzipLevel, parallelMembers, this.flushPolicy, this.flushBytes);
+    }
+
+    /**
+     * Envuelve la salida de la respuesta con la codificación negociada. Al terminar hay que
+     * llamar a {@link EncodedOutputStream#finish()} (no cierra la salida de la respuesta).
+     */
+    public EncodedOutputStream encode(OutputStream raw, ContentCoding coding) {
+        return new EncodedOutputStream(coding, raw);
+    }
+
+    /**
+     * GZIPOutputStream con nivel configurable y syncFlush: cada flush() entrega al cliente todo
+     * lo escrito hasta ese momento.
+     */
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+        private LeveledGzipOutputStream(OutputStream out, int level) throws IOException {
+            super(out, BUFFER_SIZE, true);
+            def.setLevel(level);
+        }
+    }
+
+    /**
+     * Salida codificada con la política de flush aplicada.
+     */
+    public final class EncodedOutputStream extends OutputStream {
+
+        private final ContentCoding coding;
+        private final OutputStream raw;
+        /**
+         * Compresor del tramo en curso; se crea al escribir y se termina antes de cada miembro ya
+         * comprimido (con gzip, cada tramo es un miembro).
+         */
+        private OutputStream codec;
+        private boolean empty = true;
+        /** Bytes sin comprimir desde el último flush. */
+        private long pending;
+
+        private EncodedOutputStream(ContentCoding coding, OutputStream raw) {
+            this.coding = coding;
+            this.raw = raw;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            codec().write(b);
+            written(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            codec().write(b, off, len);
+            written(len);
+        }
+
+        /**
+         * true si se pueden escribir miembros comprimidos en otros hilos (gzip y
+         * response.compression.parallel-members activo).
+         */
+        public boolean supportsMembers() {
+            return parallelMembers && coding == ContentCoding.GZIP;
+        }
+
+        /**
+         * Comprime data como un miembro gzip independiente. Sin estado: se puede llamar desde
+         * cualquier hilo.
+         */
+        public byte[] encodeMember(byte[] data) throws IOException {
+            ByteArrayOutputStream member = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (LeveledGzipOutputStream gzip = new LeveledGzipOutputStream(member, gzipLevel)) {
+                gzip.write(data);
+            }
+            return member.toByteArray();
+        }
+
+        /**
+         * Escribe un miembro de encodeMember tal cual, detrás de lo escrito hasta ahora.
+         *
+         * @param length bytes sin comprimir del miembro (para la política de flush)
+         */
+        public void writeMember(byte[] member, int length) throws IOException {
+            endCodec();
+            raw.write(member);
+            empty = false;
+            written(length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (flushPolicy == FlushPolicy.TICKER) {
+                flushNow();
+            }
+        }
+
+        /**
+         * Termina la codificación (trailer de gzip, marca de fin de LZ4) y vacía la salida.
+         */
+        public void finish() throws IOException {
+            if (empty) {
+                // Respuesta vacía: también tiene que ser un gzip / frame LZ4 válido
+                codec();
+            }
+            endCodec();
+            raw.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            raw.close();
+        }
+
+        private void written(int len) throws IOException {
+            if (flushPolicy == FlushPolicy.BYTES) {
+                pending += len;
+                if (pending >= flushBytes) {
+                    flushNow();
+                }
+            }
+        }
+
+        private void flushNow() throws IOException {
+            pending = 0;
+            (codec != null ? codec : raw).flush();
+        }
+
+        private OutputStream codec() throws IOException {
+            if (codec == null) {
+                switch (coding) {
+                    case GZIP:
+                        codec = new LeveledGzipOutputStream(raw, gzipLevel);
+                        break;
+                    case LZ4:
+                        codec = new Lz4FrameOutputStream(raw);
+                        break;
+                    default:
+                        codec = raw;
+                }
+                empty = false;
+            }
+            return codec;
+        }
+
+        private void endCodec() throws IOException {
+            if (codec instanceof GZIPOutputStream) {
+                ((GZIPOutputStream) codec).finish();
+            } else if (codec instanceof Lz4FrameOutputStream) {
+                ((Lz4FrameOutputStream) codec).finish();
+            }
+            codec = null;
+        }
+    }
+}
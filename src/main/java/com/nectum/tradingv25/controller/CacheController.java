@@ -0,0 +1,51 @@
+package com.nectum.tradingv25.controller;
+
+import com.nectum.tradingv25.cache.SeriesCacheService;
+import com.nectum.tradingv25.compression.ResponseEncoder;
+import com.nectum.tradingv25.model.response.SeriesCacheStats;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/cache/series")
+public class CacheController {
+
+    private final SeriesCacheService seriesCacheService;
+
+    @GetMapping(value = "/stats", produces = ResponseEncoder.COMPRESSIBLE_JSON_VALUE)
+    public ResponseEntity<SeriesCacheStats> getStats() {
+        return ResponseEntity.ok(seriesCacheService.stats());
+    }
+
+    @PostMapping(value = "/{idnectum}/refresh", produces = ResponseEncoder.COMPRESSIBLE_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> refreshSeries(@PathVariable Long idnectum) {
+        int appended = seriesCacheService.refresh(idnectum);
+        return ResponseEntity.ok(Map.of("idnectum", idnectum, "appended", appended));
+    }
+
+    @PostMapping(value = "/refresh", produces = ResponseEncoder.COMPRESSIBLE_JSON_VALUE)
+    public ResponseEntity<Map<String, Object>> refreshAll() {
+        long appended = seriesCacheService.refreshAll();
+        return ResponseEntity.ok(Map.of("appended", appended));
+    }
+
+    @DeleteMapping("/{idnectum}")
+    public ResponseEntity<Void> evictSeries(@PathVariable Long idnectum) {
+        log.info("Expulsando de la caché la serie idnectum {}", idnectum);
+        seriesCacheService.evictSeries(idnectum);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> evictAll() {
+        log.info("Vaciando la caché de series");
+        seriesCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
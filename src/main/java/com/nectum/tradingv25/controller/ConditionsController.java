@@ -1,5 +1,6 @@
 package com.nectum.tradingv25.controller;
 
+import com.nectum.tradingv25.compression.ResponseEncoder;
 import com.nectum.tradingv25.model.request.ConditionRequest;
 import com.nectum.tradingv25.model.response.ConditionResponse;
 import com.nectum.tradingv25.service.LLMService;
@@ -18,7 +19,7 @@ public class ConditionsController {
 
     @PostMapping(
             value = "/get_conditions",
-            produces = MediaType.APPLICATION_JSON_VALUE,
+            produces = ResponseEncoder.COMPRESSIBLE_JSON_VALUE,
             consumes = MediaType.APPLICATION_JSON_VALUE
     )
     public ResponseEntity<ConditionResponse> getConditions(@RequestBody ConditionRequest request) {
@@ -1,19 +1,31 @@
 package com.nectum.tradingv25.controller;
 
+import com.nectum.tradingv25.compression.ContentCoding;
+import com.nectum.tradingv25.compression.ResponseEncoder;
 import com.nectum.tradingv25.model.request.ListCastRequest;
+import com.nectum.tradingv25.model.response.CalculationSchedulerStats;
+import com.nectum.tradingv25.service.calculation.CalculationScheduler;
 import com.nectum.tradingv25.service.calculation.CalculationService;
+import com.nectum.tradingv25.service.calculation.ResultFormat;
+import com.nectum.tradingv25.service.calculation.plan.ConditionPlan;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Callable;
 
 @Slf4j
 @RestController
@@ -21,18 +33,61 @@ import java.util.zip.GZIPOutputStream;
 public class TradingController {
 
     private final CalculationService calculationService;
+    private final CalculationScheduler calculationScheduler;
+    private final ResponseEncoder responseEncoder;
 
-    @PostMapping(value = "/list_cast_conditions", produces = "application/json")
+    /**
+     * JSON por defecto; con Accept: application/vnd.nectum.columnar, binario por columnas.
+     * Compresión según Accept-Encoding: gzip, lz4 (frame) o sin comprimir.
+     */
+    @PostMapping(value = "/list_cast_conditions",
+            produces = {MediaType.APPLICATION_JSON_VALUE, ResultFormat.COLUMNAR_MEDIA_TYPE})
     public StreamingResponseBody streamListCastConditions(
-            @RequestBody ListCastRequest request, HttpServletResponse response) {
+            @RequestBody ListCastRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest httpRequest,
+            HttpServletResponse response) {
 
-        response.setHeader("Content-Encoding", "gzip"); // Forzar GZIP
-        response.setHeader("Transfer-Encoding", "chunked");
+        // Validación de las condiciones y admisión antes de empezar a responder:
+        // operador desconocido o stopLoss no válido -> 400, servidor saturado -> 503
+        ConditionPlan plan = ConditionPlan.compile(request);
+        ResultFormat format = ResultFormat.fromAccept(accept);
+        ContentCoding coding = ContentCoding.negotiate(acceptEncoding);
+        CalculationScheduler.Session session = calculationScheduler.open();
+
+        // La plaza de admisión se libera al cerrar la sesión: en el cuerpo al terminar y, si el
+        // cuerpo no llega a ejecutarse (ejecutor lleno, timeout, cliente desconectado), al
+        // completarse la petición asíncrona. close() es idempotente.
+        try {
+            WebAsyncUtils.getAsyncManager(httpRequest).registerCallableInterceptor(session, new CallableProcessingInterceptor() {
+                @Override
+                public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                    session.close();
+                }
+            });
+
+            response.setContentType(format.getMediaType());
+            if (coding != ContentCoding.IDENTITY) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+            }
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        } catch (RuntimeException | Error e) {
+            session.close();
+            throw e;
+        }
 
         return outputStream -> {
-            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream);
-            calculationService.processConditionsStreamingParallel(request, gzipOutputStream);
-            gzipOutputStream.finish();
+            try (session) {
+                ResponseEncoder.EncodedOutputStream encoded = responseEncoder.encode(outputStream, coding);
+                calculationService.processConditionsStreamingParallel(request, plan, format, encoded, session);
+                encoded.finish();
+            }
         };
     }
+
+    @GetMapping(value = "/calculation/scheduler/stats", produces = ResponseEncoder.COMPRESSIBLE_JSON_VALUE)
+    public ResponseEntity<CalculationSchedulerStats> getSchedulerStats() {
+        return ResponseEntity.ok(calculationScheduler.stats());
+    }
 }
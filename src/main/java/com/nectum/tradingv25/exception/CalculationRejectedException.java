@@ -0,0 +1,10 @@
+package com.nectum.tradingv25.exception;
+
+public class CalculationRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CalculationRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,8 @@
 package com.nectum.tradingv25.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -28,4 +30,26 @@ public class GlobalExceptionHandler {
                 .build();
         return ResponseEntity.badRequest().body(error);
     }
+
+    @ExceptionHandler(InvalidConditionException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCondition(InvalidConditionException e) {
+        log.error("Invalid condition error", e);
+        ErrorResponse error = ErrorResponse.builder()
+                .code("INVALID_CONDITION")
+                .message(e.getMessage())
+                .build();
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(CalculationRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleCalculationRejected(CalculationRejectedException e) {
+        log.warn("Calculation rejected: {}", e.getMessage());
+        ErrorResponse error = ErrorResponse.builder()
+                .code("SERVER_BUSY")
+                .message(e.getMessage())
+                .build();
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(error);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.nectum.tradingv25.exception;
+
+public class InvalidConditionException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidConditionException(String message) {
+        super(message);
+    }
+}
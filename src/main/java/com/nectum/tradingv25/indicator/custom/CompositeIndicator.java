@@ -1,5 +1,6 @@
 package com.nectum.tradingv25.indicator.custom;
 
+import org.ta4j.core.BarSeries;
 import org.ta4j.core.Indicator;
 import org.ta4j.core.num.Num;
 
@@ -17,6 +18,16 @@ public class CompositeIndicator<T extends Indicator<Num>> implements Indicator<N
         return indicators.get(key);
     }
 
+    /**
+     * Una salida como indicador propio (p. ej. "upper" de "bollinger: facade.upper"). Mantiene viva
+     * la fachada completa, así todas las salidas que se usen siguen compartiendo sus intermedios.
+     * Null si la salida no existe.
+     */
+    public Indicator<Num> output(String key) {
+        T indicator = indicators.get(key);
+        return indicator != null ? new Output(indicator) : null;
+    }
+
     @Override
     public Num getValue(int index) {
         throw new UnsupportedOperationException("CompositeIndicator cannot provide a single value. Use getIndicator() to retrieve specific indicators.");
@@ -28,7 +39,30 @@ public class CompositeIndicator<T extends Indicator<Num>> implements Indicator<N
     }
 
     @Override
-    public org.ta4j.core.BarSeries getBarSeries() {
+    public BarSeries getBarSeries() {
         return indicators.values().iterator().next().getBarSeries();
     }
+
+    private final class Output implements Indicator<Num> {
+        private final T indicator;
+
+        private Output(T indicator) {
+            this.indicator = indicator;
+        }
+
+        @Override
+        public Num getValue(int index) {
+            return indicator.getValue(index);
+        }
+
+        @Override
+        public int getUnstableBars() {
+            return indicator.getUnstableBars();
+        }
+
+        @Override
+        public BarSeries getBarSeries() {
+            return indicator.getBarSeries();
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStoreSeries;
+
+/**
+ * ATR (ATRIndicator): media de Wilder (MMA) del rango verdadero
+ * tr[i] = max(|high - low|, |high - close[i-1]|, |close[i-1] - low|) (solo high - low en la primera barra).
+ */
+public class FastATRIndicator extends FastIndicator {
+
+    private final int barCount;
+    private final double multiplier;
+
+    public FastATRIndicator(BarStoreSeries series, int barCount) {
+        super(series);
+        this.barCount = barCount;
+        this.multiplier = 1.0 / barCount;
+    }
+
+    @Override
+    protected void compute(double[] out, int offset, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double high = high(i);
+            double low = low(i);
+            double tr = Math.abs(high - low);
+            if (i == 0) {
+                out[i - offset] = tr;
+                continue;
+            }
+            double previousClose = close(i - 1);
+            tr = Math.max(tr, Math.max(Math.abs(high - previousClose), Math.abs(previousClose - low)));
+            out[i - offset] = (tr - out[i - 1 - offset]) * multiplier + out[i - 1 - offset];
+        }
+    }
+
+    @Override
+    public int getUnstableBars() {
+        return barCount;
+    }
+}
@@ -0,0 +1,70 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStoreSeries;
+
+/**
+ * Bandas de Bollinger del cierre con k = 2, como los Bollinger* de ta4j: media simple y desviación
+ * típica poblacional de la misma ventana. La media y la desviación son indicadores aparte para que
+ * todas las bandas del mismo periodo los compartan (IndicatorFactory los registra por serie).
+ */
+public class FastBollingerIndicator extends FastIndicator {
+
+    private static final double K = 2.0;
+
+    public enum Band {
+        /** media + k * desviación */
+        UPPER,
+        /** media - k * desviación */
+        LOWER,
+        /** (superior - inferior) / media * 100 */
+        WIDTH,
+        /** (close - inferior) / (superior - inferior) */
+        PERCENT_B
+    }
+
+    private final FastSMAIndicator middle;
+    private final FastStandardDeviationIndicator stdDev;
+    private final Band band;
+
+    public FastBollingerIndicator(BarStoreSeries series, FastSMAIndicator middle,
+                                  FastStandardDeviationIndicator stdDev, Band band) {
+        super(series);
+        this.middle = middle;
+        this.stdDev = stdDev;
+        this.band = band;
+    }
+
+    @Override
+    protected void compute(double[] out, int offset, int from, int to) {
+        double[] middles = middle.values(to - 1);
+        double[] deviations = stdDev.values(to - 1);
+        int middleOffset = middle.offset();
+        int deviationOffset = stdDev.offset();
+        for (int i = from; i < to; i++) {
+            double mean = valueAt(middles, middleOffset, i);
+            double deviation = valueAt(deviations, deviationOffset, i) * K;
+            double upper = mean + deviation;
+            double lower = mean - deviation;
+
+            switch (band) {
+                case UPPER:
+                    out[i - offset] = upper;
+                    break;
+                case LOWER:
+                    out[i - offset] = lower;
+                    break;
+                case WIDTH:
+                    out[i - offset] = divide(upper - lower, mean) * 100;
+                    break;
+                default:
+                    out[i - offset] = divide(close(i) - lower, upper - lower);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public int getUnstableBars() {
+        return middle.getUnstableBars();
+    }
+}
@@ -0,0 +1,31 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStoreSeries;
+
+/**
+ * Media exponencial del cierre (EMAIndicator sobre ClosePriceIndicator):
+ * ema[0] = close[0], ema[i] = (close[i] - ema[i-1]) * 2 / (barCount + 1) + ema[i-1].
+ */
+public class FastEMAIndicator extends FastIndicator {
+
+    private final int barCount;
+    private final double multiplier;
+
+    public FastEMAIndicator(BarStoreSeries series, int barCount) {
+        super(series);
+        this.barCount = barCount;
+        this.multiplier = 2.0 / (barCount + 1);
+    }
+
+    @Override
+    protected void compute(double[] out, int offset, int from, int to) {
+        for (int i = from; i < to; i++) {
+            out[i - offset] = i == 0 ? close(0) : (close(i) - out[i - 1 - offset]) * multiplier + out[i - 1 - offset];
+        }
+    }
+
+    @Override
+    public int getUnstableBars() {
+        return barCount;
+    }
+}
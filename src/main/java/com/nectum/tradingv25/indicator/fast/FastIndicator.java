@@ -0,0 +1,170 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStore;
+import com.nectum.tradingv25.series.BarStoreSeries;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+
+import java.util.Arrays;
+
+/**
+ * Base de los indicadores nativos sobre un {@link BarStore}: leen las columnas double del almacén
+ * y calculan en una sola pasada, en orden, sobre un double[] (sin Num intermedios ni la
+ * ArrayList de CachedIndicator). IndicatorFactory los usa cuando la serie es una BarStoreSeries.
+ *
+ * Los valores calculados no cambian al añadir barras (solo dependen de barras anteriores),
+ * así que también se guarda el de la última barra. Lectura concurrente: los valores [0, computed)
+ * son definitivos y se publican con computed (volatile); el cálculo de nuevos índices es sincronizado.
+ *
+ * Mismas entradas que ta4j: precios ausentes (NaN) como 0.0 y, con ventana deslizante, un índice
+ * descartado lee la primera barra conservada.
+ *
+ * Ventana deslizante: con maximumBarCount en el BarStore los valores siguen a las barras, como
+ * en CachedIndicator. El array empieza en el índice absoluto offset() y se compacta igual que el
+ * almacén (cuando la mitad son valores de barras descartadas), así que ocupa O(maximumBarCount)
+ * aunque la serie avance sin fin. Un índice ya descartado lee el primer valor conservado.
+ *
+ * Equivalencia: los que siguen la misma recurrencia que ta4j con DoubleNum (EMA, RSI, ATR, maxh)
+ * dan el mismo resultado bit a bit; los de ventana (SMA, desviación típica y bandas de Bollinger)
+ * usan sumas móviles y difieren de ta4j en el redondeo, por debajo de 1e-9 en términos relativos.
+ */
+public abstract class FastIndicator implements Indicator<Num> {
+
+    protected final BarStore store;
+    private final BarStoreSeries series;
+
+    private volatile double[] values;
+    /** Índice absoluto de values[0]. Solo cambia con ventana deslizante (un único hilo). */
+    private volatile int offset;
+    /** Número de valores calculados: índices [0, computed). */
+    private volatile int computed;
+
+    protected FastIndicator(BarStoreSeries series) {
+        this.series = series;
+        this.store = series.getStore();
+        this.values = new double[Math.max(Math.min(store.size(), store.getMaximumBarCount()), 16)];
+    }
+
+    /**
+     * Calcula los índices [from, to), el índice i en out[i - offset]. Se llama en orden
+     * (from = valor anterior de to) y con el monitor tomado, así que el estado acumulado de la
+     * subclase puede vivir en campos. El valor de from - 1 sigue en out.
+     */
+    protected abstract void compute(double[] out, int offset, int from, int to);
+
+    @Override
+    public Num getValue(int index) {
+        return DoubleNum.valueOf(getDouble(index));
+    }
+
+    public double getDouble(int index) {
+        return valueAt(values(index), offset, index);
+    }
+
+    /**
+     * Array de valores con al menos los índices hasta index calculados; el índice i está en
+     * [i - offset()] (leer offset() después de esta llamada). No leer más allá de index.
+     */
+    public double[] values(int index) {
+        if (index >= computed) {
+            extend(index);
+        }
+        return values;
+    }
+
+    /**
+     * Índice absoluto de la posición 0 de {@link #values(int)}.
+     */
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Copia los valores de los índices [from, from + length) en dst desde dstPos.
+     */
+    public void copyValues(int from, double[] dst, int dstPos, int length) {
+        if (length <= 0) {
+            return;
+        }
+        double[] v = values(from + length - 1);
+        int o = offset;
+        // Índices ya descartados: el primer valor conservado
+        int discarded = Math.min(length, Math.max(0, o - from));
+        Arrays.fill(dst, dstPos, dstPos + discarded, v[0]);
+        System.arraycopy(v, from + discarded - o, dst, dstPos + discarded, length - discarded);
+    }
+
+    /**
+     * Valor del índice index en un array de values() que empieza en offset.
+     */
+    protected static double valueAt(double[] values, int offset, int index) {
+        return values[Math.max(index, offset) - offset];
+    }
+
+    private synchronized void extend(int index) {
+        // Por tramos que caben en el array: con ventana, entre tramo y tramo se puede compactar
+        for (int from = computed; from <= index; from = computed) {
+            double[] v = values;
+            if (from - offset == v.length) {
+                v = makeRoom(index);
+            }
+            int to = Math.min(index + 1, offset + v.length);
+            compute(v, offset, from, to);
+            computed = to; // publica los valores
+        }
+    }
+
+    /**
+     * Como BarStore: si al menos la mitad del array son valores de barras ya descartadas se
+     * compacta, si no se amplía. Se conserva el último valor calculado (lo leen las recurrencias).
+     */
+    private double[] makeRoom(int index) {
+        double[] v = values;
+        int keep = Math.max(offset, Math.min(store.getRemovedBarsCount(), computed - 1));
+        int discarded = keep - offset;
+        if (discarded > 0 && discarded >= v.length / 2) {
+            System.arraycopy(v, discarded, v, 0, computed - keep);
+            offset = keep;
+            return v;
+        }
+        int needed = Math.min(index - offset + 1, store.getMaximumBarCount());
+        v = Arrays.copyOf(v, Math.max(needed, v.length + (v.length >> 1)));
+        values = v;
+        return v;
+    }
+
+    @Override
+    public BarSeries getBarSeries() {
+        return series;
+    }
+
+    @Override
+    public int getUnstableBars() {
+        return 0;
+    }
+
+    protected double high(int index) {
+        return price(store.high(Math.max(index, store.getRemovedBarsCount())));
+    }
+
+    protected double low(int index) {
+        return price(store.low(Math.max(index, store.getRemovedBarsCount())));
+    }
+
+    protected double close(int index) {
+        return price(store.close(Math.max(index, store.getRemovedBarsCount())));
+    }
+
+    /**
+     * División como DoubleNum.dividedBy: entre 0 da NaN.
+     */
+    protected static double divide(double dividend, double divisor) {
+        return divisor == 0 ? Double.NaN : dividend / divisor;
+    }
+
+    private static double price(double value) {
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+}
@@ -0,0 +1,21 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStoreSeries;
+
+/**
+ * Máximo acumulado del high (MaxHIndicator): maxh[i] = max(maxh[i-1], high[i]).
+ */
+public class FastMaxHIndicator extends FastIndicator {
+
+    public FastMaxHIndicator(BarStoreSeries series) {
+        super(series);
+    }
+
+    @Override
+    protected void compute(double[] out, int offset, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double high = high(i);
+            out[i - offset] = i > 0 && out[i - 1 - offset] > high ? out[i - 1 - offset] : high;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStoreSeries;
+
+/**
+ * RSI del cierre (RSIIndicator): medias de Wilder (MMA, multiplicador 1 / barCount) de las
+ * subidas y bajadas; 100 - 100 / (1 + subida / bajada), 0 o 100 si la bajada media es 0.
+ */
+public class FastRSIIndicator extends FastIndicator {
+
+    private final double multiplier;
+    private double averageGain;
+    private double averageLoss;
+
+    public FastRSIIndicator(BarStoreSeries series, int barCount) {
+        super(series);
+        this.multiplier = 1.0 / barCount;
+    }
+
+    @Override
+    protected void compute(double[] out, int offset, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (i > 0) {
+                double current = close(i);
+                double previous = close(i - 1);
+                double gain = current > previous ? current - previous : 0.0;
+                double loss = current < previous ? previous - current : 0.0;
+                averageGain = (gain - averageGain) * multiplier + averageGain;
+                averageLoss = (loss - averageLoss) * multiplier + averageLoss;
+            }
+            if (averageLoss == 0) {
+                out[i - offset] = averageGain == 0 ? 0.0 : 100.0;
+            } else {
+                out[i - offset] = 100.0 - 100.0 / (1.0 + averageGain / averageLoss);
+            }
+        }
+    }
+}
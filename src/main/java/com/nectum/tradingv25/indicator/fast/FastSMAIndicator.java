@@ -0,0 +1,41 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStoreSeries;
+
+/**
+ * Media simple del cierre (SMAIndicator sobre ClosePriceIndicator) con suma móvil:
+ * sma[i] = suma(close[i-n+1..i]) / n, n = min(barCount, i + 1).
+ */
+public class FastSMAIndicator extends FastIndicator {
+
+    private final int barCount;
+    private double sum;
+
+    public FastSMAIndicator(BarStoreSeries series, int barCount) {
+        super(series);
+        if (barCount <= 0) {
+            throw new IllegalArgumentException("barCount debe ser mayor que 0: " + barCount);
+        }
+        this.barCount = barCount;
+    }
+
+    @Override
+    protected void compute(double[] out, int offset, int from, int to) {
+        for (int i = from; i < to; i++) {
+            sum += close(i);
+            if (i >= barCount) {
+                sum -= close(i - barCount);
+            }
+            out[i - offset] = sum / Math.min(barCount, i + 1);
+        }
+    }
+
+    public int getBarCount() {
+        return barCount;
+    }
+
+    @Override
+    public int getUnstableBars() {
+        return barCount;
+    }
+}
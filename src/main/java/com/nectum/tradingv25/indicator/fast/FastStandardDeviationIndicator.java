@@ -0,0 +1,92 @@
+package com.nectum.tradingv25.indicator.fast;
+
+import com.nectum.tradingv25.series.BarStoreSeries;
+
+/**
+ * Desviación típica poblacional del cierre (StandardDeviationIndicator sobre ClosePriceIndicator)
+ * en la ventana de la media dada, n = min(barCount, i + 1).
+ *
+ * Sumas móviles, O(1) por barra: suma y suma de cuadrados de close - c, con c la media de la
+ * ventana en el último cálculo completo, y varianza = (Σ(x - c)² - (Σ(x - c))² / n) / n. Al
+ * restar c los términos son desviaciones y no precios, así que no se pierde precisión aunque la
+ * media sea grande. Cada barCount barras, y cuando el redondeo acumulado deja de ser
+ * despreciable frente a la varianza (ventana casi plana), se recalcula en dos pasadas como
+ * VarianceIndicator con la media de la ventana; así una ventana plana da 0 exacto. O(1)
+ * amortizado mientras las ventanas no sean casi planas.
+ */
+public class FastStandardDeviationIndicator extends FastIndicator {
+
+    /**
+     * Error relativo admitido: con el redondeo acumulado por debajo de 1e-6 * ulp de la varianza,
+     * la desviación queda dentro del 1e-9 de las ventanas de FastIndicator.
+     */
+    private static final double TOLERANCE = 1e-6;
+
+    private final FastSMAIndicator mean;
+    private final int barCount;
+    /** Referencia c de las sumas: media de la ventana en el último cálculo completo. */
+    private double shift;
+    /** Σ(close - c) y Σ(close - c)² en la ventana de la última barra calculada. */
+    private double sum;
+    private double squares;
+    /** Suma de los términos añadidos y quitados desde el último cálculo completo (cota del redondeo). */
+    private double magnitude;
+
+    public FastStandardDeviationIndicator(BarStoreSeries series, FastSMAIndicator mean) {
+        super(series);
+        if (mean.getBarCount() <= 0) {
+            throw new IllegalArgumentException("barCount debe ser mayor que 0: " + mean.getBarCount());
+        }
+        this.mean = mean;
+        this.barCount = mean.getBarCount();
+    }
+
+    @Override
+    protected void compute(double[] out, int offset, int from, int to) {
+        double[] means = mean.values(to - 1);
+        int meanOffset = mean.offset();
+        for (int i = from; i < to; i++) {
+            int n = Math.min(barCount, i + 1);
+            double squaredDeviations = Double.NaN;
+            if (i > 0 && i % barCount != barCount - 1) {
+                double x = close(i) - shift;
+                sum += x;
+                squares += x * x;
+                magnitude += x * x;
+                if (i >= barCount) {
+                    double y = close(i - barCount) - shift;
+                    sum -= y;
+                    squares -= y * y;
+                    magnitude += y * y;
+                }
+                squaredDeviations = squares - sum * sum / n;
+            }
+            if (!(squaredDeviations >= magnitude * TOLERANCE)) {
+                squaredDeviations = reset(valueAt(means, meanOffset, i), i - n + 1, i);
+            }
+            out[i - offset] = Math.sqrt(squaredDeviations / n);
+        }
+    }
+
+    /**
+     * Recalcula las sumas de las barras [first, last] respecto a su media y devuelve
+     * Σ(close - media)², en dos pasadas como VarianceIndicator.
+     */
+    private double reset(double windowMean, int first, int last) {
+        shift = windowMean;
+        sum = 0.0;
+        squares = 0.0;
+        for (int j = first; j <= last; j++) {
+            double deviation = close(j) - windowMean;
+            sum += deviation;
+            squares += deviation * deviation;
+        }
+        magnitude = squares;
+        return squares;
+    }
+
+    @Override
+    public int getUnstableBars() {
+        return barCount;
+    }
+}
@@ -4,8 +4,17 @@ import com.nectum.tradingv25.indicator.custom.BooleanToNumIndicator;
 import com.nectum.tradingv25.indicator.custom.CompositeIndicator;
 import com.nectum.tradingv25.indicator.custom.MaxHIndicator;
 import com.nectum.tradingv25.indicator.custom.PriceEarningsRatioIndicator;
+import com.nectum.tradingv25.indicator.fast.FastATRIndicator;
+import com.nectum.tradingv25.indicator.fast.FastBollingerIndicator;
+import com.nectum.tradingv25.indicator.fast.FastEMAIndicator;
+import com.nectum.tradingv25.indicator.fast.FastIndicator;
+import com.nectum.tradingv25.indicator.fast.FastMaxHIndicator;
+import com.nectum.tradingv25.indicator.fast.FastRSIIndicator;
+import com.nectum.tradingv25.indicator.fast.FastSMAIndicator;
+import com.nectum.tradingv25.indicator.fast.FastStandardDeviationIndicator;
 import com.nectum.tradingv25.indicator.helpers.DateTimeToNumIndicator;
 import com.nectum.tradingv25.indicator.helpers.WrapperIndicator;
+import com.nectum.tradingv25.series.BarStoreSeries;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Indicator;
 import org.ta4j.core.indicators.*;
@@ -17,6 +26,7 @@ import org.ta4j.core.indicators.donchian.*;
 import org.ta4j.core.indicators.helpers.*;
 import org.ta4j.core.indicators.ichimoku.*;
 import org.ta4j.core.indicators.keltner.*;
+import org.ta4j.core.indicators.numeric.NumericIndicator;
 import org.ta4j.core.indicators.pivotpoints.*;
 import org.ta4j.core.indicators.statistics.*;
 import org.ta4j.core.indicators.supertrend.*;
@@ -26,7 +36,9 @@ import org.ta4j.core.indicators.volume.*;
 
 import org.ta4j.core.num.Num;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.BiFunction;
 
 public class IndicatorFactory {
@@ -36,13 +48,69 @@ public class IndicatorFactory {
 
     private static final Map<String, IndicatorCreator> INDICATOR_MAP = new HashMap<>();
 
+    @FunctionalInterface
+    public interface FastIndicatorCreator extends BiFunction<BarStoreSeries, Integer, Indicator<Num>> {}
+
+    /**
+     * Versiones nativas (double[], ver FastIndicator) de los indicadores más usados, para series
+     * respaldadas por un BarStore. Mismas claves y periodos por defecto que INDICATOR_MAP.
+     */
+    private static final Map<String, FastIndicatorCreator> FAST_INDICATOR_MAP = new HashMap<>();
+
+    /**
+     * Salidas de las fachadas (CompositeIndicator), con las claves de su mapa. En las condiciones
+     * se piden como "nombre.salida", p. ej. "bollinger: facade.upper".
+     */
+    private static final Map<String, List<String>> FACADE_OUTPUTS = Map.of(
+            "aroon: facade", List.of("up", "down", "oscillator"),
+            "bollinger: facade", List.of("middle", "upper", "lower", "bandwidth", "percentb"),
+            "keltner: facade", List.of("middle", "upper", "lower")
+    );
+
+    /**
+     * Indicadores cuyo valor en una barra depende de la última barra de la serie (miran hacia
+     * delante y dan NaN cerca del final). CachedIndicator guarda ese NaN, así que al añadir barras
+     * no basta con extenderlos: hay que crearlos de nuevo (ver SeriesCacheService.refresh).
+     */
+    private static final Set<String> READS_AHEAD = Set.of(
+            "ichimoku: chikou_span"
+    );
+
+    static {
+        FAST_INDICATOR_MAP.put("sma: sma", (series, p) -> fastSma(series, p > 14 ? p : 14));
+        FAST_INDICATOR_MAP.put("ema: ema", (series, p) -> new FastEMAIndicator(series, p > 14 ? p : 14));
+        FAST_INDICATOR_MAP.put("rsi: rsi", (series, p) -> new FastRSIIndicator(series, p > 0 ? p : 14));
+        FAST_INDICATOR_MAP.put("atr: atr", FastATRIndicator::new);
+        FAST_INDICATOR_MAP.put("maxh: maxh", (series, p) -> new FastMaxHIndicator(series));
+
+        // Misma instancia que usan las bandas de Bollinger del periodo
+        FAST_INDICATOR_MAP.put("standard_deviation: standard_deviation",
+                (series, p) -> p > 0 ? fastStdDev(series, p) : stdDev(series, p));
+
+        // Mismas salidas que la fachada ta4j; cada banda es una pasada sobre la SMA y la desviación compartidas.
+        // Con periodo <= 0 la fachada ta4j (da NaN), y con ella todas las salidas "bollinger: *"
+        FAST_INDICATOR_MAP.put("bollinger: facade", (series, p) -> p > 0
+                ? new CompositeIndicator<>(Map.of(
+                        "middle", fastSma(series, p),
+                        "upper", fastBollinger(series, p, FastBollingerIndicator.Band.UPPER),
+                        "lower", fastBollinger(series, p, FastBollingerIndicator.Band.LOWER),
+                        "bandwidth", fastBollinger(series, p, FastBollingerIndicator.Band.WIDTH),
+                        "percentb", fastBollinger(series, p, FastBollingerIndicator.Band.PERCENT_B)))
+                : INDICATOR_MAP.get("bollinger: facade").apply(series, p));
+        FAST_INDICATOR_MAP.put("bollinger: middle", (series, p) -> facadeOutput(series, "bollinger: facade", p, "middle"));
+        FAST_INDICATOR_MAP.put("bollinger: upper", (series, p) -> facadeOutput(series, "bollinger: facade", p, "upper"));
+        FAST_INDICATOR_MAP.put("bollinger: lower", (series, p) -> facadeOutput(series, "bollinger: facade", p, "lower"));
+        FAST_INDICATOR_MAP.put("bollinger: width", (series, p) -> facadeOutput(series, "bollinger: facade", p, "bandwidth"));
+        FAST_INDICATOR_MAP.put("bollinger: percent_b", (series, p) -> facadeOutput(series, "bollinger: facade", p, "percentb"));
+    }
+
     static {
         // Basic (OHLCV)
-        INDICATOR_MAP.put("open: open", (series, p) -> new OpenPriceIndicator(series));
-        INDICATOR_MAP.put("high: high", (series, p) -> new HighPriceIndicator(series));
-        INDICATOR_MAP.put("low: low", (series, p) -> new LowPriceIndicator(series));
-        INDICATOR_MAP.put("close: close", (series, p) -> new ClosePriceIndicator(series));
-        INDICATOR_MAP.put("volume: volume", (series, p) -> new VolumeIndicator(series));
+        INDICATOR_MAP.put("open: open", (series, p) -> openPrice(series));
+        INDICATOR_MAP.put("high: high", (series, p) -> highPrice(series));
+        INDICATOR_MAP.put("low: low", (series, p) -> lowPrice(series));
+        INDICATOR_MAP.put("close: close", (series, p) -> closePrice(series));
+        INDICATOR_MAP.put("volume: volume", (series, p) -> volume(series));
 
 
         INDICATOR_MAP.put("typical_price: typical_price", (series, p) -> new TypicalPriceIndicator(series));
@@ -50,21 +118,21 @@ public class IndicatorFactory {
 
         // Moving Averages
         INDICATOR_MAP.put("sma: sma", (series, p) ->
-                new SMAIndicator(new ClosePriceIndicator(series), p > 14 ? p : 14)); // Valor predeterminado: 14
+                sma(series, p > 14 ? p : 14)); // Valor predeterminado: 14
         INDICATOR_MAP.put("ema: ema", (series, p) ->
-                new EMAIndicator(new ClosePriceIndicator(series), p > 14 ? p : 14)); // Valor predeterminado: 14
+                new EMAIndicator(closePrice(series), p > 14 ? p : 14)); // Valor predeterminado: 14
 
 
 
-        INDICATOR_MAP.put("wma: wma", (series, p) -> new WMAIndicator(new ClosePriceIndicator(series), p));
-        INDICATOR_MAP.put("dema: dema", (series, p) -> new DoubleEMAIndicator(new ClosePriceIndicator(series), p));
-        INDICATOR_MAP.put("tema: tema", (series, p) -> new TripleEMAIndicator(new ClosePriceIndicator(series), p));
-        INDICATOR_MAP.put("zlema: zlema", (series, p) -> new ZLEMAIndicator(new ClosePriceIndicator(series), p));
-        INDICATOR_MAP.put("kama: kama", (series, p) -> new KAMAIndicator(new ClosePriceIndicator(series), 10, 2, 30));
+        INDICATOR_MAP.put("wma: wma", (series, p) -> new WMAIndicator(closePrice(series), p));
+        INDICATOR_MAP.put("dema: dema", (series, p) -> new DoubleEMAIndicator(closePrice(series), p));
+        INDICATOR_MAP.put("tema: tema", (series, p) -> new TripleEMAIndicator(closePrice(series), p));
+        INDICATOR_MAP.put("zlema: zlema", (series, p) -> new ZLEMAIndicator(closePrice(series), p));
+        INDICATOR_MAP.put("kama: kama", (series, p) -> new KAMAIndicator(closePrice(series), 10, 2, 30));
 
 
         INDICATOR_MAP.put("rsi: rsi", (series, p) ->
-                new RSIIndicator(new ClosePriceIndicator(series), p > 0 ? p : 14) // Si p <= 2, usa 14
+                new RSIIndicator(closePrice(series), p > 0 ? p : 14) // Si p <= 2, usa 14
         );
 
         /*
@@ -73,7 +141,7 @@ public class IndicatorFactory {
         * */
         INDICATOR_MAP.put("maxh: maxh", (series, period) -> {
             // 1) Creamos la base: HighPriceIndicator
-            Indicator<Num> highIndicator = new HighPriceIndicator(series);
+            Indicator<Num> highIndicator = highPrice(series);
             // 2) Lo envolvemos en nuestro MaxHIndicator
             return new MaxHIndicator(highIndicator);
         });
@@ -82,7 +150,7 @@ public class IndicatorFactory {
 
         INDICATOR_MAP.put("priceearningsratio", (series, p) ->
                 new PriceEarningsRatioIndicator(
-                        new ClosePriceIndicator(series),                // Indicador de precio
+                        closePrice(series),                // Indicador de precio
                         new ConstantIndicator<>(series, series.numOf(5)),
                         p > 0 ? p : 14
                 )
@@ -91,11 +159,11 @@ public class IndicatorFactory {
 
         INDICATOR_MAP.put("stochastic: stochastic_k", (series, p) -> new StochasticOscillatorKIndicator(series, p));
         INDICATOR_MAP.put("stochastic: stochastic_d", (series, p) -> new StochasticOscillatorDIndicator(new StochasticOscillatorKIndicator(series, p)));
-        INDICATOR_MAP.put("macd: macd", (series, p) -> new MACDIndicator(new ClosePriceIndicator(series), p, p * 2));
+        INDICATOR_MAP.put("macd: macd", (series, p) -> new MACDIndicator(closePrice(series), p, p * 2));
         INDICATOR_MAP.put("cci: cci", (series, p) -> new CCIIndicator(series, p));
-        INDICATOR_MAP.put("roc: roc", (series, p) -> new ROCIndicator(new ClosePriceIndicator(series), p));
-        INDICATOR_MAP.put("stochasticrsi: stochasticrsi", (series, p) -> new StochasticRSIIndicator(new ClosePriceIndicator(series), p));
-        INDICATOR_MAP.put("cmo: cmo", (series, p) -> new CMOIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("roc: roc", (series, p) -> new ROCIndicator(closePrice(series), p));
+        INDICATOR_MAP.put("stochasticrsi: stochasticrsi", (series, p) -> new StochasticRSIIndicator(closePrice(series), p));
+        INDICATOR_MAP.put("cmo: cmo", (series, p) -> new CMOIndicator(closePrice(series), p));
 
 
         // ADX
@@ -108,7 +176,7 @@ public class IndicatorFactory {
         INDICATOR_MAP.put("plusdm: plusdm", (series, p) -> new PlusDMIndicator(series));
 
         INDICATOR_MAP.put("atr: atr", (series, p) -> new ATRIndicator(series, p));
-        INDICATOR_MAP.put("ulcerindex: ulcerindex", (series, p) -> new UlcerIndexIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("ulcerindex: ulcerindex", (series, p) -> new UlcerIndexIndicator(closePrice(series), p));
 
         // Trend
         INDICATOR_MAP.put("psar: psar", (series, p) -> new ParabolicSarIndicator(series));
@@ -128,40 +196,26 @@ public class IndicatorFactory {
         INDICATOR_MAP.put("aroon: oscillator", (series, period) -> new AroonOscillatorIndicator(series, period));
 
         // Bollinger
-        INDICATOR_MAP.put("bollinger: middle", (series, p) -> new BollingerBandsMiddleIndicator(new SMAIndicator(new ClosePriceIndicator(series), p)));
-        INDICATOR_MAP.put("bollinger: facade", (series, period) -> {
-            BollingerBandFacade facade = new BollingerBandFacade(series, period, 2);
-            return new CompositeIndicator<>(Map.of(
-                    "middle", facade.middle(),
-                    "upper", facade.upper(),
-                    "lower", facade.lower(),
-                    "bandwidth", facade.bandwidth(),
-                    "percentB", facade.percentB()
-            ));
-        });
-        INDICATOR_MAP.put("bollinger: width", (series, period) -> {
-            BollingerBandsMiddleIndicator middle = new BollingerBandsMiddleIndicator(new SMAIndicator(new ClosePriceIndicator(series), period));
-            BollingerBandsUpperIndicator upper = new BollingerBandsUpperIndicator(middle, new StandardDeviationIndicator(new ClosePriceIndicator(series), period));
-            BollingerBandsLowerIndicator lower = new BollingerBandsLowerIndicator(middle, new StandardDeviationIndicator(new ClosePriceIndicator(series), period));
-            return new BollingerBandWidthIndicator(upper, middle, lower);
-        });
-        INDICATOR_MAP.put("bollinger: upper", (series, p) -> {
-            BollingerBandsMiddleIndicator middle = new BollingerBandsMiddleIndicator(new SMAIndicator(new ClosePriceIndicator(series), p));
-            StandardDeviationIndicator stdDev = new StandardDeviationIndicator(new ClosePriceIndicator(series), p);
-            return new BollingerBandsUpperIndicator(middle, stdDev);
-        });
-        INDICATOR_MAP.put("bollinger: lower", (series, p) -> {
-            BollingerBandsMiddleIndicator middle = new BollingerBandsMiddleIndicator(new SMAIndicator(new ClosePriceIndicator(series), p));
-            StandardDeviationIndicator stdDev = new StandardDeviationIndicator(new ClosePriceIndicator(series), p);
-            return new BollingerBandsLowerIndicator(middle, stdDev);
-        });
-        INDICATOR_MAP.put("bollinger: percent_b", (series, p) -> {
-            BollingerBandsMiddleIndicator middle = new BollingerBandsMiddleIndicator(new SMAIndicator(new ClosePriceIndicator(series), p));
-            StandardDeviationIndicator stdDev = new StandardDeviationIndicator(new ClosePriceIndicator(series), p);
+        // Todas las bandas salen de la fachada: una sola SMA y una sola desviación por periodo
+        INDICATOR_MAP.put("bollinger: facade", (series, p) -> {
+            BollingerBandsMiddleIndicator middle = bollingerMiddle(series, p);
+            StandardDeviationIndicator stdDev = stdDev(series, p);
             BollingerBandsUpperIndicator upper = new BollingerBandsUpperIndicator(middle, stdDev);
             BollingerBandsLowerIndicator lower = new BollingerBandsLowerIndicator(middle, stdDev);
-            return new PercentBIndicator(new ClosePriceIndicator(series), p, 2.0);
+            return new CompositeIndicator<>(Map.of(
+                    "middle", middle,
+                    "upper", upper,
+                    "lower", lower,
+                    "bandwidth", new BollingerBandWidthIndicator(upper, middle, lower),
+                    "percentb", NumericIndicator.of(closePrice(series)).minus(lower)
+                            .dividedBy(NumericIndicator.of(upper).minus(lower))
+            ));
         });
+        INDICATOR_MAP.put("bollinger: middle", (series, p) -> facadeOutput(series, "bollinger: facade", p, "middle"));
+        INDICATOR_MAP.put("bollinger: upper", (series, p) -> facadeOutput(series, "bollinger: facade", p, "upper"));
+        INDICATOR_MAP.put("bollinger: lower", (series, p) -> facadeOutput(series, "bollinger: facade", p, "lower"));
+        INDICATOR_MAP.put("bollinger: width", (series, p) -> facadeOutput(series, "bollinger: facade", p, "bandwidth"));
+        INDICATOR_MAP.put("bollinger: percent_b", (series, p) -> facadeOutput(series, "bollinger: facade", p, "percentb"));
 
 
 
@@ -212,7 +266,7 @@ public class IndicatorFactory {
 // Helpers
         INDICATOR_MAP.put("helpers: amount",(series, p) -> new AmountIndicator(series));
 
-        INDICATOR_MAP.put("helpers: boolean_transform",(series, p) -> new WrapperIndicator<>(BooleanTransformIndicator.isPositive(new ClosePriceIndicator(series))));
+        INDICATOR_MAP.put("helpers: boolean_transform",(series, p) -> new WrapperIndicator<>(BooleanTransformIndicator.isPositive(closePrice(series))));
 
         INDICATOR_MAP.put("helpers: close_location_value",(series, p) -> new CloseLocationValueIndicator(series));
 
@@ -220,23 +274,23 @@ public class IndicatorFactory {
 
         INDICATOR_MAP.put("helpers: close_price_ratio",(series, p) -> new ClosePriceRatioIndicator(series));
 
-        INDICATOR_MAP.put("helpers: combine",(series, p) -> CombineIndicator.plus(new HighPriceIndicator(series), new LowPriceIndicator(series)));
+        INDICATOR_MAP.put("helpers: combine",(series, p) -> CombineIndicator.plus(highPrice(series), lowPrice(series)));
 
         INDICATOR_MAP.put("helpers: constant",(series, p) -> new ConstantIndicator<>(series, series.numOf(p)));
 
         INDICATOR_MAP.put("helpers: convergence_divergence",
                 (series, p) -> new WrapperIndicator<>(
                         new ConvergenceDivergenceIndicator(
-                        new ClosePriceIndicator(series),
-                        new SMAIndicator(new ClosePriceIndicator(series), p),
+                        closePrice(series),
+                        sma(series, p),
                         p,
                         ConvergenceDivergenceIndicator.ConvergenceDivergenceType.positiveConvergent
                 )));
 
         INDICATOR_MAP.put("helpers: cross",(series, p)
                 -> new WrapperIndicator<>(new CrossIndicator(
-                        new SMAIndicator(new ClosePriceIndicator(series), p),
-                        new SMAIndicator(new ClosePriceIndicator(series), p * 2)
+                        sma(series, p),
+                        sma(series, p * 2)
                 )));
 
         INDICATOR_MAP.put("helpers: date_time",
@@ -244,7 +298,7 @@ public class IndicatorFactory {
 
         // Helpers
         INDICATOR_MAP.put("helpers: difference_percentage",
-                (series, p) -> new DifferencePercentageIndicator(new ClosePriceIndicator(series), series.numOf(p)));
+                (series, p) -> new DifferencePercentageIndicator(closePrice(series), series.numOf(p)));
 
         INDICATOR_MAP.put("helpers: fixed_boolean",
                 (series, p) -> new WrapperIndicator<>(new FixedBooleanIndicator(series, true, false, true)));
@@ -254,45 +308,45 @@ public class IndicatorFactory {
                 (series, p) -> new FixedDecimalIndicator(series, 1.0, 2.5, 3.3)); // Ejemplo: valores constantes numéricos
 
         INDICATOR_MAP.put("helpers: fixed",
-                (series, p) -> new FixedIndicator(series, 42.0, 43.0));
+                (series, p) -> new FixedIndicator<>(series, series.numOf(42.0), series.numOf(43.0)));
 
 
         INDICATOR_MAP.put("helpers: gain",
-                (series, p) -> new GainIndicator(new ClosePriceIndicator(series)));
+                (series, p) -> new GainIndicator(closePrice(series)));
 
         INDICATOR_MAP.put("helpers: highest_value",
-                (series, p) -> new HighestValueIndicator(new ClosePriceIndicator(series), p));
+                (series, p) -> new HighestValueIndicator(closePrice(series), p));
 
         INDICATOR_MAP.put("helpers: loss",
-                (series, p) -> new LossIndicator(new ClosePriceIndicator(series)));
+                (series, p) -> new LossIndicator(closePrice(series)));
 
         INDICATOR_MAP.put("helpers: lowest_value",
-                (series, p) -> new LowestValueIndicator(new ClosePriceIndicator(series), p));
+                (series, p) -> new LowestValueIndicator(closePrice(series), p));
 
         INDICATOR_MAP.put("helpers: num",
                 (series, p) -> new NumIndicator(series, bar -> series.numOf(bar.getClosePrice().doubleValue())));
 
         INDICATOR_MAP.put("helpers: previous_value",
-                (series, p) -> new PreviousValueIndicator(new ClosePriceIndicator(series), p));
+                (series, p) -> new PreviousValueIndicator(closePrice(series), p));
 
         // Helpers
         INDICATOR_MAP.put("helpers: running_total",
-                (series, p) -> new RunningTotalIndicator(new ClosePriceIndicator(series), p));
+                (series, p) -> new RunningTotalIndicator(closePrice(series), p));
 
         INDICATOR_MAP.put("helpers: sum",
-                (series, p) -> new SumIndicator(new ClosePriceIndicator(series), new VolumeIndicator(series)));
+                (series, p) -> new SumIndicator(closePrice(series), volume(series)));
 
         INDICATOR_MAP.put("helpers: trade_count",
                 (series, p) -> new WrapperIndicator<>(new TradeCountIndicator(series)));
 
         INDICATOR_MAP.put("helpers: transform",
-                (series, p) -> TransformIndicator.multiply(new ClosePriceIndicator(series), p));
+                (series, p) -> TransformIndicator.multiply(closePrice(series), p));
 
         INDICATOR_MAP.put("helpers: tr",
                 (series, p) -> new TRIndicator(series));
 
         INDICATOR_MAP.put("helpers: unstable",
-                (series, p) -> new UnstableIndicator(new ClosePriceIndicator(series), p));
+                (series, p) -> new UnstableIndicator(closePrice(series), p));
 
         // Ichimoku
         INDICATOR_MAP.put("ichimoku: chikou_span",
@@ -348,29 +402,29 @@ public class IndicatorFactory {
                         FibonacciReversalIndicator.FibReversalTyp.RESISTANCE));
 
         // Statistical Indicators
-        INDICATOR_MAP.put("variance: variance",(series, p) -> new VarianceIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("variance: variance",(series, p) -> new VarianceIndicator(closePrice(series), p));
 
         INDICATOR_MAP.put("covariance: covariance",(series, p) -> new CovarianceIndicator(
-                        new ClosePriceIndicator(series), new VolumeIndicator(series), p));
+                        closePrice(series), volume(series), p));
 
-        INDICATOR_MAP.put("mean_deviation: mean_deviation",(series, p) -> new MeanDeviationIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("mean_deviation: mean_deviation",(series, p) -> new MeanDeviationIndicator(closePrice(series), p));
 
-        INDICATOR_MAP.put("standard_deviation: standard_deviation",(series, p) -> new StandardDeviationIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("standard_deviation: standard_deviation",(series, p) -> stdDev(series, p));
 
-        INDICATOR_MAP.put("standard_error: standard_error",(series, p) -> new StandardErrorIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("standard_error: standard_error",(series, p) -> new StandardErrorIndicator(closePrice(series), p));
 
-        INDICATOR_MAP.put("sigma: sigma",(series, p) -> new SigmaIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("sigma: sigma",(series, p) -> new SigmaIndicator(closePrice(series), p));
 
         INDICATOR_MAP.put("correlation_coefficient: correlation_coefficient",(series, p) -> new CorrelationCoefficientIndicator(
-                        new ClosePriceIndicator(series), new VolumeIndicator(series), p));
+                        closePrice(series), volume(series), p));
 
         INDICATOR_MAP.put("pearson_correlation: pearson_correlation",(series, p) -> new PearsonCorrelationIndicator(
-                        new ClosePriceIndicator(series), new VolumeIndicator(series), p));
+                        closePrice(series), volume(series), p));
 
-        INDICATOR_MAP.put("periodical_growth_rate: periodical_growth_rate",(series, p) -> new PeriodicalGrowthRateIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("periodical_growth_rate: periodical_growth_rate",(series, p) -> new PeriodicalGrowthRateIndicator(closePrice(series), p));
 
         INDICATOR_MAP.put("simple_linear_regression: simple_linear_regression",(series, p) -> new SimpleLinearRegressionIndicator(
-                        new ClosePriceIndicator(series), p, SimpleLinearRegressionIndicator.SimpleLinearRegressionType.Y));
+                        closePrice(series), p, SimpleLinearRegressionIndicator.SimpleLinearRegressionType.Y));
 
         // SuperTrend Indicators
         INDICATOR_MAP.put("supertrend: upper_band",(series, p)
@@ -429,29 +483,29 @@ public class IndicatorFactory {
         //REsto de indicadores base
 
         INDICATOR_MAP.put("coppock: coppock",
-                (series, p) -> new CoppockCurveIndicator(new ClosePriceIndicator(series), 14, 11, 10)); // Parámetros estándar
+                (series, p) -> new CoppockCurveIndicator(closePrice(series), 14, 11, 10)); // Parámetros estándar
 
         INDICATOR_MAP.put("intraday: intraday",
                 (series, p) -> new IntraDayMomentumIndexIndicator(series, p));
 
         INDICATOR_MAP.put("kst: kst",
-                (series, p) -> new KSTIndicator(new ClosePriceIndicator(series), 10, 10, 15, 10, 20, 10, 30, 15));
+                (series, p) -> new KSTIndicator(closePrice(series), 10, 10, 15, 10, 20, 10, 30, 15));
 
         INDICATOR_MAP.put("chop: chop",
                 (series, p) -> new ChopIndicator(series, p, 100)); // Escala estándar a 100
 
         // Statistical and Trend Indicators
         INDICATOR_MAP.put("lwma: lwma",
-                (series, p) -> new LWMAIndicator(new ClosePriceIndicator(series), p)); // Línea ponderada
+                (series, p) -> new LWMAIndicator(closePrice(series), p)); // Línea ponderada
 
         INDICATOR_MAP.put("mass: mass",
                 (series, p) -> new MassIndexIndicator(series, 9, p)); // Uso común con 9 EMA
 
         INDICATOR_MAP.put("mma: mma",
-                (series, p) -> new MMAIndicator(new ClosePriceIndicator(series), p)); // MMA
+                (series, p) -> new MMAIndicator(closePrice(series), p)); // MMA
 
         INDICATOR_MAP.put("ppo: ppo",
-                (series, p) -> new PPOIndicator(new ClosePriceIndicator(series), 12, 26)); // PPO estándar
+                (series, p) -> new PPOIndicator(closePrice(series), 12, 26)); // PPO estándar
 
         INDICATOR_MAP.put("pvo: pvo",
                 (series, p) -> new PVOIndicator(series, 12, 26)); // PVO basado en volumen
@@ -460,7 +514,7 @@ public class IndicatorFactory {
             int fastSmaPeriod = p > 0 ? p : 7; // Valor predeterminado
             int slowSmaPeriod = p > 0 ? p * 2 : 14; // Valor predeterminado
             return new RAVIIndicator(
-                    new ClosePriceIndicator(series), // Indicador base
+                    closePrice(series), // Indicador base
                     fastSmaPeriod,                   // Período corto
                     slowSmaPeriod                    // Período largo
             );
@@ -480,18 +534,18 @@ public class IndicatorFactory {
                 (series, p) -> new FisherIndicator(new MedianPriceIndicator(series), p));
 
         INDICATOR_MAP.put("hma: hma",
-                (series, p) -> new HMAIndicator(new ClosePriceIndicator(series), p));
+                (series, p) -> new HMAIndicator(closePrice(series), p));
 
 
         // Indicator
-        INDICATOR_MAP.put("dpo: dpo", (series, p) -> new DPOIndicator(new ClosePriceIndicator(series), p));
+        INDICATOR_MAP.put("dpo: dpo", (series, p) -> new DPOIndicator(closePrice(series), p));
         INDICATOR_MAP.put("chandelier: exit_long", (series, p) -> new ChandelierExitLongIndicator(series, p, p * 2));
         INDICATOR_MAP.put("chandelier: exit_short", (series, p) -> new ChandelierExitShortIndicator(series, p, p * 2));
 
         INDICATOR_MAP.put("rwilow: rwi_low", (series, p) -> new RWILowIndicator(series, p));
-        INDICATOR_MAP.put("distancefromma: dfma", (series, p) -> new DistanceFromMAIndicator(series, new SMAIndicator(new ClosePriceIndicator(series), p)));
+        INDICATOR_MAP.put("distancefromma: dfma", (series, p) -> new DistanceFromMAIndicator(series, sma(series, p)));
 
-        INDICATOR_MAP.put("kalman: filter", (series, p) -> new KalmanFilterIndicator(new ClosePriceIndicator(series)));
+        INDICATOR_MAP.put("kalman: filter", (series, p) -> new KalmanFilterIndicator(closePrice(series)));
 
         // Williams %R Indicator
         INDICATOR_MAP.put("williams_r: williams_r",
@@ -499,13 +553,131 @@ public class IndicatorFactory {
 
     }
 
+    // Sub-indicadores comunes: una instancia por serie y clave (IndicatorRegistry), compartida por
+    // todos los indicadores que los usan
+
+    private static ClosePriceIndicator closePrice(BarSeries series) {
+        return IndicatorRegistry.of(series).intern("close", () -> new ClosePriceIndicator(series));
+    }
+
+    private static HighPriceIndicator highPrice(BarSeries series) {
+        return IndicatorRegistry.of(series).intern("high", () -> new HighPriceIndicator(series));
+    }
+
+    private static LowPriceIndicator lowPrice(BarSeries series) {
+        return IndicatorRegistry.of(series).intern("low", () -> new LowPriceIndicator(series));
+    }
+
+    private static OpenPriceIndicator openPrice(BarSeries series) {
+        return IndicatorRegistry.of(series).intern("open", () -> new OpenPriceIndicator(series));
+    }
+
+    private static VolumeIndicator volume(BarSeries series) {
+        return IndicatorRegistry.of(series).intern("volume", () -> new VolumeIndicator(series));
+    }
+
+    private static SMAIndicator sma(BarSeries series, int barCount) {
+        return IndicatorRegistry.of(series).intern("sma(close," + barCount + ")",
+                () -> new SMAIndicator(closePrice(series), barCount));
+    }
+
+    private static StandardDeviationIndicator stdDev(BarSeries series, int barCount) {
+        return IndicatorRegistry.of(series).intern("sd(close," + barCount + ")",
+                () -> new StandardDeviationIndicator(closePrice(series), barCount));
+    }
+
+    private static BollingerBandsMiddleIndicator bollingerMiddle(BarSeries series, int barCount) {
+        return IndicatorRegistry.of(series).intern("bbm(close," + barCount + ")",
+                () -> new BollingerBandsMiddleIndicator(sma(series, barCount)));
+    }
+
+    private static FastSMAIndicator fastSma(BarStoreSeries series, int barCount) {
+        return IndicatorRegistry.of(series).intern("fast:sma(close," + barCount + ")",
+                () -> new FastSMAIndicator(series, barCount));
+    }
+
+    private static FastStandardDeviationIndicator fastStdDev(BarStoreSeries series, int barCount) {
+        return IndicatorRegistry.of(series).intern("fast:sd(close," + barCount + ")",
+                () -> new FastStandardDeviationIndicator(series, fastSma(series, barCount)));
+    }
+
+    private static FastBollingerIndicator fastBollinger(BarStoreSeries series, int barCount, FastBollingerIndicator.Band band) {
+        return IndicatorRegistry.of(series).intern("fast:bb(close," + barCount + ")." + band,
+                () -> new FastBollingerIndicator(series, fastSma(series, barCount), fastStdDev(series, barCount), band));
+    }
+
+    /**
+     * Fachada (indicador de varias salidas) de la serie: una instancia por serie, nombre y periodo,
+     * así todas las salidas que pida la petición salen del mismo cálculo.
+     */
+    private static CompositeIndicator<?> facade(BarSeries series, String facadeName, int period) {
+        return IndicatorRegistry.of(series).intern("facade:" + facadeName + "(" + period + ")",
+                () -> (CompositeIndicator<?>) create(series, facadeName, period));
+    }
+
+    private static Indicator<Num> facadeOutput(BarSeries series, String facadeName, int period, String output) {
+        CompositeIndicator<?> composite = facade(series, facadeName, period);
+        Indicator<Num> indicator = composite.getIndicator(output);
+        if (indicator == null || indicator instanceof FastIndicator) {
+            // Los nativos ya están registrados por serie: se devuelven tal cual (copia directa de su double[])
+            return indicator;
+        }
+        return composite.output(output);
+    }
+
+    /**
+     * Null si el nombre se puede usar en una condición; si no, el motivo. Las fachadas solo se
+     * pueden pedir por una de sus salidas ("bollinger: facade.upper"): su getValue no devuelve nada.
+     */
+    public static String checkSelectable(String rawName) {
+        String key = rawName.trim().toLowerCase();
+        List<String> outputs = FACADE_OUTPUTS.get(key);
+        if (outputs != null) {
+            return "'" + rawName + "' tiene varias salidas, indicar una: " + key + "." + String.join(", " + key + ".", outputs);
+        }
+        int dot = key.lastIndexOf('.');
+        if (dot > 0) {
+            outputs = FACADE_OUTPUTS.get(key.substring(0, dot));
+            if (outputs != null && !outputs.contains(key.substring(dot + 1))) {
+                return "Salida desconocida en '" + rawName + "', válidas: " + String.join(", ", outputs);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * true si los valores ya calculados del indicador cambian al añadir barras a la serie.
+     */
+    public static boolean readsAhead(String rawName) {
+        return READS_AHEAD.contains(rawName.trim().toLowerCase());
+    }
+
     public static Indicator<Num> createIndicator(BarSeries series, String rawName, int period) {
         String key = rawName.trim().toLowerCase();
-        IndicatorCreator creator = INDICATOR_MAP.get(key);
-        if (creator != null) {
-            return creator.apply(series, period);
+        // Salida de una fachada: "bollinger: facade.upper"
+        int dot = key.lastIndexOf('.');
+        if (dot > 0 && FACADE_OUTPUTS.containsKey(key.substring(0, dot))) {
+            Indicator<Num> output = facadeOutput(series, key.substring(0, dot), period, key.substring(dot + 1));
+            if (output != null) {
+                return output;
+            }
+        }
+        Indicator<Num> indicator = create(series, key, period);
+        if (indicator != null) {
+            return indicator;
         }
         // Fallback si no lo encuentras
-        return new ClosePriceIndicator(series);
+        return closePrice(series);
+    }
+
+    private static Indicator<Num> create(BarSeries series, String key, int period) {
+        if (series instanceof BarStoreSeries) {
+            FastIndicatorCreator fastCreator = FAST_INDICATOR_MAP.get(key);
+            if (fastCreator != null) {
+                return fastCreator.apply((BarStoreSeries) series, period);
+            }
+        }
+        IndicatorCreator creator = INDICATOR_MAP.get(key);
+        return creator != null ? creator.apply(series, period) : null;
     }
 }
@@ -0,0 +1,71 @@
+package com.nectum.tradingv25.indicator.ta4j;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.Indicator;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Registro por serie de sub-indicadores compartidos (cierre, SMA, desviación típica...), indexados
+ * por una clave estructural como "sma(close,20)". IndicatorFactory pide aquí las entradas comunes,
+ * así bollinger upper, lower y width del mismo periodo usan la misma SMA y la misma desviación y
+ * cada valor se calcula y se cachea una sola vez para todas las condiciones.
+ *
+ * Las entradas son referencias débiles: un sub-indicador vive mientras lo use algún indicador
+ * (de la caché de SeriesCacheService o del mapa de la petición) y no alarga la vida de nada.
+ * El registro de una serie desaparece con la serie (claves débiles, por identidad).
+ */
+final class IndicatorRegistry {
+
+    private static final Cache<BarSeries, IndicatorRegistry> REGISTRIES = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    /** Cada cuántas altas se purgan las entradas ya recogidas por el GC. */
+    private static final int PURGE_INTERVAL = 64;
+
+    private final Map<String, WeakReference<Indicator<?>>> indicators = new HashMap<>();
+    private int puts;
+
+    private IndicatorRegistry() {
+    }
+
+    static IndicatorRegistry of(BarSeries series) {
+        return REGISTRIES.get(series, s -> new IndicatorRegistry());
+    }
+
+    /**
+     * Devuelve el sub-indicador registrado con esa clave o lo crea. La clave debe identificar
+     * el indicador por completo (tipo, entrada y parámetros) dentro de la serie.
+     * Sincronizado y reentrante: el creador puede pedir a su vez otros sub-indicadores.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized <T extends Indicator<?>> T intern(String key, Supplier<T> creator) {
+        WeakReference<Indicator<?>> ref = indicators.get(key);
+        Indicator<?> existing = ref != null ? ref.get() : null;
+        if (existing != null) {
+            return (T) existing;
+        }
+        T created = creator.get();
+        indicators.put(key, new WeakReference<>(created));
+        if (++puts % PURGE_INTERVAL == 0) {
+            purge();
+        }
+        return created;
+    }
+
+    private void purge() {
+        Iterator<WeakReference<Indicator<?>>> it = indicators.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().get() == null) {
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.nectum.tradingv25.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estado y métricas del planificador de cálculo (CalculationScheduler).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalculationSchedulerStats {
+    private int threads;
+    private int queueCapacity;
+    private int maxRequests;
+
+    private int activeRequests;
+    private long rejectedRequests;
+
+    private int queueDepth;
+    private int activeTasks;
+    private long completedTasks;
+    private double averageWaitMillis;
+    private double maxWaitMillis;
+}
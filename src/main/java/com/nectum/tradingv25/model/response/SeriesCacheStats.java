@@ -0,0 +1,40 @@
+package com.nectum.tradingv25.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estadísticas de la caché de series (SeriesCacheService).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesCacheStats {
+    private long series;
+    private long bars;
+    private long indicators;
+    private long maxBars;
+
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+
+    private long loadSuccessCount;
+    private long loadFailureCount;
+    private long averageLoadMillis;
+    private long totalLoadMillis;
+
+    private long evictionCount;
+    private long evictionWeight;
+
+    // Caché de indicadores (peso = valores, uno por barra)
+    private long indicatorValues;
+    private long maxIndicatorValues;
+    private long indicatorHitCount;
+    private long indicatorMissCount;
+    private double indicatorHitRate;
+    private long indicatorEvictionCount;
+}
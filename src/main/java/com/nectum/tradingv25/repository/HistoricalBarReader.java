@@ -0,0 +1,188 @@
+package com.nectum.tradingv25.repository;
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.nectum.tradingv25.series.BarStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonType;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * Lector de historicosm que evita el mapeo a HistoricalData: proyecta solo
+ * fecha/open/maximo/minimo/close/volumen, recibe RawBsonDocument y lo decodifica con
+ * BsonBinaryReader directamente en las columnas primitivas de un {@link BarStore}.
+ *
+ * Mismas conversiones que el antiguo camino por entidad: precio nulo o ausente -> NaN,
+ * volumen nulo -> 0, fecha -> día local en la zona del sistema.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HistoricalBarReader {
+
+    private static final String COLLECTION = "historicosm";
+    private static final int FULL_HISTORY_BATCH_SIZE = 5000;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private static final Bson PROJECTION = Projections.fields(
+            Projections.include("fecha", "open", "maximo", "minimo", "close", "volumen"),
+            Projections.excludeId());
+    private static final Bson SORT_BY_FECHA = Sorts.ascending("fecha");
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Carga todo el histórico de un idnectum en un único cursor.
+     */
+    public BarStore readAll(Long idnectum) {
+        BarStore store = new BarStore(idnectum);
+        readInto(store, idnectum, null, true, 0);
+        return store;
+    }
+
+    /**
+     * Añade a sink las barras de idnectum con fecha posterior (o igual si inclusive) a from,
+     * en orden ascendente. from null = desde el principio; limit 0 = sin límite.
+     *
+     * @return epoch millis de la última fecha leída, o Long.MIN_VALUE si no había datos
+     */
+    public long readInto(BarStore sink, Long idnectum, Date from, boolean inclusive, int limit) {
+        Bson filter = Filters.eq("idnectum", idnectum);
+        if (from != null) {
+            filter = Filters.and(filter, inclusive ? Filters.gte("fecha", from) : Filters.gt("fecha", from));
+        }
+
+        FindIterable<RawBsonDocument> find = mongoTemplate.getCollection(COLLECTION)
+                .withDocumentClass(RawBsonDocument.class)
+                .find(filter)
+                .projection(PROJECTION)
+                .sort(SORT_BY_FECHA)
+                .batchSize(limit > 0 ? limit : FULL_HISTORY_BATCH_SIZE);
+        if (limit > 0) {
+            find = find.limit(limit);
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        long lastEpochMilli = Long.MIN_VALUE;
+        try (MongoCursor<RawBsonDocument> cursor = find.iterator()) {
+            while (cursor.hasNext()) {
+                long fecha = decode(cursor.next(), sink, zone);
+                if (fecha != Long.MIN_VALUE) {
+                    lastEpochMilli = fecha;
+                }
+            }
+        }
+        return lastEpochMilli;
+    }
+
+    /**
+     * Decodifica un documento proyectado y lo añade a sink. Devuelve la fecha en epoch millis,
+     * o Long.MIN_VALUE si el documento no tiene fecha (se descarta).
+     */
+    private static long decode(RawBsonDocument doc, BarStore sink, ZoneId zone) {
+        long fecha = Long.MIN_VALUE;
+        double open = Double.NaN;
+        double high = Double.NaN;
+        double low = Double.NaN;
+        double close = Double.NaN;
+        long volume = 0L;
+
+        try (BsonBinaryReader reader = new BsonBinaryReader(doc.getByteBuffer().asNIO())) {
+            reader.readStartDocument();
+            BsonType type;
+            while ((type = reader.readBsonType()) != BsonType.END_OF_DOCUMENT) {
+                switch (reader.readName()) {
+                    case "fecha":
+                        if (type == BsonType.DATE_TIME) {
+                            fecha = reader.readDateTime();
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                    case "open":
+                        open = readDouble(reader, type);
+                        break;
+                    case "maximo":
+                        high = readDouble(reader, type);
+                        break;
+                    case "minimo":
+                        low = readDouble(reader, type);
+                        break;
+                    case "close":
+                        close = readDouble(reader, type);
+                        break;
+                    case "volumen":
+                        volume = readLong(reader, type);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.readEndDocument();
+        }
+
+        if (fecha == Long.MIN_VALUE) {
+            return fecha;
+        }
+        sink.append(toEpochDay(fecha, zone), open, high, low, close, volume);
+        return fecha;
+    }
+
+    private static double readDouble(BsonBinaryReader reader, BsonType type) {
+        switch (type) {
+            case DOUBLE:
+                return reader.readDouble();
+            case INT32:
+                return reader.readInt32();
+            case INT64:
+                return reader.readInt64();
+            case DECIMAL128:
+                return reader.readDecimal128().doubleValue();
+            case NULL:
+                reader.readNull();
+                return Double.NaN;
+            default:
+                reader.skipValue();
+                return Double.NaN;
+        }
+    }
+
+    private static long readLong(BsonBinaryReader reader, BsonType type) {
+        switch (type) {
+            case INT64:
+                return reader.readInt64();
+            case INT32:
+                return reader.readInt32();
+            case DOUBLE:
+                return (long) reader.readDouble();
+            case DECIMAL128:
+                return reader.readDecimal128().longValue();
+            case NULL:
+                reader.readNull();
+                return 0L;
+            default:
+                reader.skipValue();
+                return 0L;
+        }
+    }
+
+    /**
+     * Día local (zona del sistema) de un instante, sin crear ZonedDateTime/LocalDate.
+     */
+    static long toEpochDay(long epochMilli, ZoneId zone) {
+        int offsetSeconds = zone.getRules().getOffset(Instant.ofEpochMilli(epochMilli)).getTotalSeconds();
+        return Math.floorDiv(epochMilli + offsetSeconds * 1000L, MILLIS_PER_DAY);
+    }
+}
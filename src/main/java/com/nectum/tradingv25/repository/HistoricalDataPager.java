@@ -0,0 +1,126 @@
+package com.nectum.tradingv25.repository;
+
+import com.nectum.tradingv25.series.BarStore;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lectura paginada de historicosm por keyset (fecha > última fecha vista) en lugar de skip/limit.
+ * Cada página cuesta lo mismo sin importar su posición y no hay consulta count.
+ *
+ * Las páginas se piden con una por delante: mientras el llamante evalúa la página N,
+ * la N+1 ya está en vuelo. Si no queda ningún hilo de prefetch libre, la siguiente página
+ * se lee en el propio hilo del llamante (sin adelanto, pero sin encolar).
+ *
+ * Cada página se lee con {@link HistoricalBarReader} en un BarStore propio, que el llamante
+ * vuelca en su almacén con {@link BarStore#appendAll}.
+ *
+ * Supone una sola barra por (idnectum, fecha), igual que el resto de consultas del repositorio.
+ */
+@Slf4j
+@Component
+public class HistoricalDataPager {
+
+    private final HistoricalBarReader historicalBarReader;
+    private final ThreadPoolExecutor prefetchExecutor;
+
+    public HistoricalDataPager(HistoricalBarReader historicalBarReader,
+                               @Value("${historical.prefetch.threads:16}") int prefetchThreads) {
+        this.historicalBarReader = historicalBarReader;
+        AtomicInteger counter = new AtomicInteger();
+        this.prefetchExecutor = new ThreadPoolExecutor(
+                0, prefetchThreads,
+                30, TimeUnit.SECONDS,
+                new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "historical-prefetch-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Abre un cursor desde startDate (inclusive). Cerrarlo descarta la página adelantada.
+     */
+    public Cursor open(Long idnectum, Date startDate, int pageSize) {
+        return new Cursor(idnectum, startDate, pageSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private static final class Page {
+        private final BarStore bars;
+        private final long lastEpochMilli;
+
+        private Page(BarStore bars, long lastEpochMilli) {
+            this.bars = bars;
+            this.lastEpochMilli = lastEpochMilli;
+        }
+    }
+
+    public class Cursor implements AutoCloseable {
+        private final Long idnectum;
+        private final int pageSize;
+        private CompletableFuture<Page> inFlight;
+
+        private Cursor(Long idnectum, Date startDate, int pageSize) {
+            this.idnectum = idnectum;
+            this.pageSize = pageSize;
+            this.inFlight = fetch(startDate, true);
+        }
+
+        private CompletableFuture<Page> fetch(Date from, boolean inclusive) {
+            return CompletableFuture.supplyAsync(() -> {
+                BarStore bars = new BarStore(idnectum, pageSize);
+                long last = historicalBarReader.readInto(bars, idnectum, from, inclusive, pageSize);
+                return new Page(bars, last);
+            }, prefetchExecutor);
+        }
+
+        /**
+         * Devuelve la siguiente página (vacía al terminar) y lanza ya la petición de la siguiente.
+         */
+        public BarStore next() {
+            if (inFlight == null) {
+                return new BarStore(idnectum, 0);
+            }
+            Page page;
+            try {
+                page = inFlight.join();
+            } catch (CompletionException e) {
+                inFlight = null;
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+
+            if (page.bars.size() < pageSize) {
+                // Última página: no hay nada más que pedir
+                inFlight = null;
+            } else {
+                inFlight = fetch(new Date(page.lastEpochMilli), false);
+            }
+            return page.bars;
+        }
+
+        @Override
+        public void close() {
+            if (inFlight != null) {
+                inFlight.cancel(false);
+                inFlight = null;
+            }
+        }
+    }
+}
@@ -7,9 +7,6 @@ import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.stereotype.Repository;
 import java.util.Date;
-import java.util.List;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 
 @Repository
 public interface HistoricalDataRepository extends MongoRepository<HistoricalData, String> {
@@ -17,13 +14,4 @@ public interface HistoricalDataRepository extends MongoRepository<HistoricalData
     @Query(value = "{ 'idnectum': ?0 }", exists = true)
     boolean existsByIdnectum(Long idnectum);
 
-    @Query(value = "{ 'idnectum': ?0 }", sort = "{ 'fecha': 1 }")
-    List<HistoricalData> findAllByIdnectumOrderByFechaAsc(Long idnectum);
-
-
-    @Query(value = "{ 'idnectum': ?0, 'fecha': { $gte: ?1 } }", sort = "{ 'fecha': 1 }")
-    Page<HistoricalData> findByIdnectumAndFechaGreaterThanEqual(Long idnectum, Date startDate, Pageable pageable);
-
-
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,205 @@
+package com.nectum.tradingv25.series;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Almacén columnar de barras diarias de un idnectum.
+ *
+ * Guarda open/high/low/close en double[], el volumen en long[] y la fecha como epochDay
+ * (día local en la zona del sistema, igual que formatDate en el servicio de cálculo).
+ * Sustituye a BaseBarSeries + BaseBar + ZonedDateTime + DecimalNum por registro.
+ *
+ * Los precios ausentes en Mongo se guardan como NaN para poder omitirlos al serializar;
+ * el adaptador {@link BarStoreSeries} los entrega a ta4j como 0.0, como hacía buildBarSeries.
+ *
+ * Escritura: un solo escritor a la vez (append sincronizado). Lectura: concurrente; los arrays
+ * solo crecen y el tamaño se publica después de escribir cada barra.
+ *
+ * Ventana deslizante: con {@link #setMaximumBarCount} solo se conservan las últimas N barras,
+ * con la misma semántica que BaseBarSeries (los índices son absolutos y las barras anteriores
+ * a {@link #getRemovedBarsCount()} dejan de estar disponibles). En este modo el almacén
+ * compacta sus arrays, así que solo debe usarlo un único hilo.
+ */
+public class BarStore {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final Long idnectum;
+    private final BarStoreSeries series;
+
+    private volatile double[] open;
+    private volatile double[] high;
+    private volatile double[] low;
+    private volatile double[] close;
+    private volatile long[] volume;
+    private volatile long[] epochDay;
+    private volatile int size;
+
+    /** Índice absoluto de la posición 0 de los arrays. */
+    private int base;
+    private int removedBarsCount;
+    private int maximumBarCount = Integer.MAX_VALUE;
+
+    public BarStore(Long idnectum) {
+        this(idnectum, DEFAULT_CAPACITY);
+    }
+
+    public BarStore(Long idnectum, int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.idnectum = idnectum;
+        this.open = new double[capacity];
+        this.high = new double[capacity];
+        this.low = new double[capacity];
+        this.close = new double[capacity];
+        this.volume = new long[capacity];
+        this.epochDay = new long[capacity];
+        this.series = new BarStoreSeries(this, "idnectum_" + idnectum);
+    }
+
+    /**
+     * Añade una barra al final. Las fechas deben llegar en orden ascendente.
+     */
+    public synchronized void append(long day, double o, double h, double l, double c, long v) {
+        int n = size;
+        int slot = n - base;
+        if (slot == epochDay.length) {
+            makeRoom();
+            slot = n - base;
+        }
+        open[slot] = o;
+        high[slot] = h;
+        low[slot] = l;
+        close[slot] = c;
+        volume[slot] = v;
+        epochDay[slot] = day;
+        if (n + 1 - removedBarsCount > maximumBarCount) {
+            removedBarsCount = n + 1 - maximumBarCount;
+        }
+        size = n + 1; // publica la barra
+    }
+
+    /**
+     * Añade al final todas las barras disponibles de other (p. ej. una página recién leída).
+     */
+    public synchronized void appendAll(BarStore other) {
+        for (int i = other.getRemovedBarsCount(), n = other.size(); i < n; i++) {
+            append(other.epochDay(i), other.open(i), other.high(i), other.low(i), other.close(i), other.volume(i));
+        }
+    }
+
+    /**
+     * Limita el número de barras conservadas (ventana deslizante). Ver la nota de la clase.
+     */
+    public synchronized void setMaximumBarCount(int maximumBarCount) {
+        if (maximumBarCount <= 0) {
+            throw new IllegalArgumentException("maximumBarCount debe ser mayor que 0");
+        }
+        this.maximumBarCount = maximumBarCount;
+        if (size - removedBarsCount > maximumBarCount) {
+            removedBarsCount = size - maximumBarCount;
+        }
+    }
+
+    public int getMaximumBarCount() {
+        return maximumBarCount;
+    }
+
+    public int getRemovedBarsCount() {
+        return removedBarsCount;
+    }
+
+    /**
+     * Sin hueco al final: si al menos la mitad del array son barras ya descartadas se compacta,
+     * si no se amplía. Así la ventana cuesta O(1) amortizado por barra.
+     */
+    private void makeRoom() {
+        int discarded = removedBarsCount - base;
+        if (discarded > 0 && discarded >= epochDay.length / 2) {
+            int kept = size - removedBarsCount;
+            System.arraycopy(open, discarded, open, 0, kept);
+            System.arraycopy(high, discarded, high, 0, kept);
+            System.arraycopy(low, discarded, low, 0, kept);
+            System.arraycopy(close, discarded, close, 0, kept);
+            System.arraycopy(volume, discarded, volume, 0, kept);
+            System.arraycopy(epochDay, discarded, epochDay, 0, kept);
+            base = removedBarsCount;
+            return;
+        }
+        int newCapacity = epochDay.length + (epochDay.length >> 1);
+        open = Arrays.copyOf(open, newCapacity);
+        high = Arrays.copyOf(high, newCapacity);
+        low = Arrays.copyOf(low, newCapacity);
+        close = Arrays.copyOf(close, newCapacity);
+        volume = Arrays.copyOf(volume, newCapacity);
+        epochDay = Arrays.copyOf(epochDay, newCapacity);
+    }
+
+    public Long getIdnectum() {
+        return idnectum;
+    }
+
+    /**
+     * Número total de barras añadidas (incluidas las descartadas por la ventana).
+     * Los índices válidos son [getRemovedBarsCount(), size()).
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double open(int index) {
+        return open[index - base];
+    }
+
+    public double high(int index) {
+        return high[index - base];
+    }
+
+    public double low(int index) {
+        return low[index - base];
+    }
+
+    public double close(int index) {
+        return close[index - base];
+    }
+
+    public long volume(int index) {
+        return volume[index - base];
+    }
+
+    public long epochDay(int index) {
+        return epochDay[index - base];
+    }
+
+    /**
+     * Primer índice con epochDay >= day (búsqueda binaria), o size() si no hay ninguno.
+     */
+    public int indexOfDay(long day) {
+        int lo = removedBarsCount;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (epochDay(mid) < day) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public LocalDate date(int index) {
+        return LocalDate.ofEpochDay(epochDay(index));
+    }
+
+    /**
+     * Vista BarSeries (DoubleNum) sobre este almacén. Siempre es la misma instancia.
+     */
+    public BarStoreSeries asBarSeries() {
+        return series;
+    }
+}
@@ -0,0 +1,101 @@
+package com.nectum.tradingv25.series;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Vista de una barra diaria de un {@link BarStore}. Equivale al BaseBar que construía
+ * buildBarSeries: periodo de un día, endTime a medianoche local, amount 0 y sin trades.
+ */
+class BarStoreBar implements Bar {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Duration ONE_DAY = Duration.ofDays(1);
+
+    private final BarStore store;
+    private final int index;
+
+    BarStoreBar(BarStore store, int index) {
+        this.store = store;
+        this.index = index;
+    }
+
+    @Override
+    public Duration getTimePeriod() {
+        return ONE_DAY;
+    }
+
+    @Override
+    public ZonedDateTime getBeginTime() {
+        return getEndTime().minus(ONE_DAY);
+    }
+
+    @Override
+    public ZonedDateTime getEndTime() {
+        return LocalDate.ofEpochDay(store.epochDay(index)).atStartOfDay(ZoneId.systemDefault());
+    }
+
+    @Override
+    public Num getOpenPrice() {
+        return price(store.open(index));
+    }
+
+    @Override
+    public Num getHighPrice() {
+        return price(store.high(index));
+    }
+
+    @Override
+    public Num getLowPrice() {
+        return price(store.low(index));
+    }
+
+    @Override
+    public Num getClosePrice() {
+        return price(store.close(index));
+    }
+
+    @Override
+    public Num getVolume() {
+        return DoubleNum.valueOf(store.volume(index));
+    }
+
+    @Override
+    public Num getAmount() {
+        return DoubleNum.ZERO;
+    }
+
+    @Override
+    public long getTrades() {
+        return 0;
+    }
+
+    @Override
+    public void addTrade(Num tradeVolume, Num tradePrice) {
+        throw new UnsupportedOperationException("BarStoreBar es de solo lectura");
+    }
+
+    @Override
+    public void addPrice(Num price) {
+        throw new UnsupportedOperationException("BarStoreBar es de solo lectura");
+    }
+
+    private static Num price(double value) {
+        // Los precios ausentes (NaN) se tratan como 0.0, igual que el antiguo buildBarSeries
+        return DoubleNum.valueOf(Double.isNaN(value) ? 0.0 : value);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("{end time: %s, close price: %s, open price: %s, low price: %s, high price: %s, volume: %d}",
+                LocalDate.ofEpochDay(store.epochDay(index)), store.close(index), store.open(index),
+                store.low(index), store.high(index), store.volume(index));
+    }
+}
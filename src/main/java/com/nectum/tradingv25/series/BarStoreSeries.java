@@ -0,0 +1,170 @@
+package com.nectum.tradingv25.series;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeriesBuilder;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptador BarSeries de solo lectura sobre un {@link BarStore}, usando DoubleNum.
+ * Las barras se crean bajo demanda a partir de las columnas; los indicadores de ta4j
+ * (todos CachedIndicator) solo las piden una vez por índice.
+ *
+ * Para añadir datos se usa {@link BarStore#append}; los métodos de escritura de BarSeries
+ * no están soportados. Con ventana deslizante, un índice ya descartado devuelve la primera
+ * barra conservada, como BaseBarSeries.
+ */
+public class BarStoreSeries implements BarSeries {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Num NUM = DoubleNum.valueOf(0);
+
+    private final BarStore store;
+    private final String name;
+
+    BarStoreSeries(BarStore store, String name) {
+        this.store = store;
+        this.name = name;
+    }
+
+    public BarStore getStore() {
+        return store;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Num num() {
+        return NUM;
+    }
+
+    @Override
+    public Bar getBar(int i) {
+        if (i < 0 || i >= store.size()) {
+            throw new IndexOutOfBoundsException("Índice de barra fuera de rango: " + i);
+        }
+        return new BarStoreBar(store, Math.max(i, store.getRemovedBarsCount()));
+    }
+
+    @Override
+    public int getBarCount() {
+        return store.size() - store.getRemovedBarsCount();
+    }
+
+    @Override
+    public List<Bar> getBarData() {
+        return new AbstractList<>() {
+            @Override
+            public Bar get(int index) {
+                return getBar(store.getRemovedBarsCount() + index);
+            }
+
+            @Override
+            public int size() {
+                return getBarCount();
+            }
+        };
+    }
+
+    @Override
+    public int getBeginIndex() {
+        return store.isEmpty() ? -1 : store.getRemovedBarsCount();
+    }
+
+    @Override
+    public int getEndIndex() {
+        return store.size() - 1;
+    }
+
+    @Override
+    public int getMaximumBarCount() {
+        return store.getMaximumBarCount();
+    }
+
+    @Override
+    public void setMaximumBarCount(int maximumBarCount) {
+        store.setMaximumBarCount(maximumBarCount);
+    }
+
+    @Override
+    public int getRemovedBarsCount() {
+        return store.getRemovedBarsCount();
+    }
+
+    @Override
+    public void addBar(Bar bar, boolean replace) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addBar(Duration timePeriod, ZonedDateTime endTime) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addBar(ZonedDateTime endTime, Num openPrice, Num highPrice, Num lowPrice, Num closePrice,
+                       Num volume, Num amount) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addBar(Duration timePeriod, ZonedDateTime endTime, Num openPrice, Num highPrice, Num lowPrice,
+                       Num closePrice, Num volume) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addBar(Duration timePeriod, ZonedDateTime endTime, Num openPrice, Num highPrice, Num lowPrice,
+                       Num closePrice, Num volume, Num amount) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addTrade(Num tradeVolume, Num tradePrice) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addPrice(Num price) {
+        throw readOnly();
+    }
+
+    /**
+     * Copia el rango [startIndex, endIndex) a una BaseBarSeries independiente (DoubleNum).
+     */
+    @Override
+    public BarSeries getSubSeries(int startIndex, int endIndex) {
+        if (startIndex < 0) {
+            throw new IllegalArgumentException("startIndex no puede ser negativo: " + startIndex);
+        }
+        if (startIndex > endIndex) {
+            throw new IllegalArgumentException("endIndex debe ser mayor que startIndex");
+        }
+        int begin = Math.max(startIndex, store.getRemovedBarsCount());
+        int end = Math.min(endIndex, store.size());
+        List<Bar> bars = new ArrayList<>(Math.max(end - begin, 0));
+        for (int i = begin; i < end; i++) {
+            bars.add(getBar(i));
+        }
+        return new BaseBarSeriesBuilder()
+                .withName(name)
+                .withNumTypeOf(DoubleNum.class)
+                .withBars(bars)
+                .build();
+    }
+
+    private UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("BarStoreSeries es de solo lectura; usar BarStore.append");
+    }
+}
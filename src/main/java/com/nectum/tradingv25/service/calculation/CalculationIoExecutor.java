@@ -0,0 +1,92 @@
+package com.nectum.tradingv25.service.calculation;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor de la etapa de E/S (lecturas de historicosm) del modo escalonado
+ * (calculation.parallel.mode=staged).
+ *
+ * En Java 21+ usa un hilo virtual por tarea: una lectura bloqueada en el driver síncrono de Mongo
+ * no ocupa un hilo de plataforma. En Java 17 usa un pool de hilos de plataforma del mismo tamaño
+ * que el límite de concurrencia. En ambos casos como mucho calculation.staged.io-concurrency
+ * lecturas simultáneas, por debajo del pool de conexiones de Mongo (maxSize 100).
+ */
+@Slf4j
+@Component
+public class CalculationIoExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final boolean virtualThreads;
+
+    public CalculationIoExecutor(@Value("${calculation.staged.io-concurrency:64}") int ioConcurrency) {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : newPlatformExecutor(ioConcurrency);
+        this.permits = new Semaphore(ioConcurrency);
+        log.info("CalculationIoExecutor: {} (máximo {} lecturas simultáneas)",
+                virtualThreads ? "hilos virtuales" : "hilos de plataforma", ioConcurrency);
+    }
+
+    /**
+     * Ejecuta una tarea de E/S respetando el límite de concurrencia.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() por reflexión: el proyecto compila para Java 17.
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                threads, threads,
+                30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "calculation-io-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
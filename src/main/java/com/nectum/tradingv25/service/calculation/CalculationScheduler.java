@@ -0,0 +1,304 @@
+package com.nectum.tradingv25.service.calculation;
+
+import com.nectum.tradingv25.exception.CalculationRejectedException;
+import com.nectum.tradingv25.model.response.CalculationSchedulerStats;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Planificador único para los cálculos por idnectum de todas las peticiones.
+ *
+ * - Un número fijo de hilos (calculation.scheduler.threads, por defecto 2 por núcleo) en lugar
+ *   de un pool nuevo por petición.
+ * - Reparto justo: cada petición abre una {@link Session} con su propia cola y los hilos las
+ *   atienden por turnos (round-robin), así una petición de 2.000 idnectums no deja esperando
+ *   a una de 5.
+ * - Cola acotada (calculation.scheduler.queue-capacity): si está llena, submit bloquea al
+ *   llamante hasta que haya hueco.
+ * - Admisión: como mucho calculation.scheduler.max-requests sesiones abiertas; open() espera
+ *   hasta admission-timeout-ms y después lanza {@link CalculationRejectedException} (503).
+ * - Subtareas (fork/join): una tarea en curso puede repartir su trabajo (tramos de un idnectum)
+ *   con fork; join ejecuta en el propio hilo las que nadie ha empezado, así que esperar a una
+ *   subtarea nunca bloquea el planificador.
+ */
+@Slf4j
+@Component
+public class CalculationScheduler {
+
+    private final int threads;
+    private final int queueCapacity;
+    private final int maxRequests;
+    private final long admissionTimeoutMs;
+
+    private final Semaphore admission;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    /** Sesiones con tareas en cola, en orden de turno. */
+    private final ArrayDeque<Session> ready = new ArrayDeque<>();
+    private int queued;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    // Métricas
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final AtomicLong completedTasks = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public CalculationScheduler(@Value("${calculation.scheduler.threads:0}") int threads,
+                                @Value("${calculation.scheduler.queue-capacity:1024}") int queueCapacity,
+                                @Value("${calculation.scheduler.max-requests:32}") int maxRequests,
+                                @Value("${calculation.scheduler.admission-timeout-ms:5000}") long admissionTimeoutMs) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors() * 2;
+        this.queueCapacity = queueCapacity;
+        this.maxRequests = maxRequests;
+        this.admissionTimeoutMs = admissionTimeoutMs;
+        this.admission = new Semaphore(maxRequests, true);
+
+        for (int i = 0; i < this.threads; i++) {
+            Thread t = new Thread(this::workerLoop, "calculation-" + (i + 1));
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+        log.info("CalculationScheduler: {} hilos, cola {}, máximo {} peticiones simultáneas",
+                this.threads, queueCapacity, maxRequests);
+    }
+
+    /**
+     * Admite una petición. Cerrar la sesión cancela sus tareas pendientes y libera la plaza.
+     */
+    public Session open() {
+        boolean admitted;
+        try {
+            admitted = admission.tryAcquire(admissionTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejectedRequests.incrementAndGet();
+            throw new CalculationRejectedException(
+                    "Demasiadas peticiones de cálculo en curso (" + maxRequests + "), reintentar más tarde");
+        }
+        activeSessions.incrementAndGet();
+        return new Session();
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public CalculationSchedulerStats stats() {
+        long completed = completedTasks.get();
+        int depth;
+        lock.lock();
+        try {
+            depth = queued;
+        } finally {
+            lock.unlock();
+        }
+        return CalculationSchedulerStats.builder()
+                .threads(threads)
+                .queueCapacity(queueCapacity)
+                .maxRequests(maxRequests)
+                .activeRequests(activeSessions.get())
+                .rejectedRequests(rejectedRequests.get())
+                .queueDepth(depth)
+                .activeTasks(activeTasks.get())
+                .completedTasks(completed)
+                .averageWaitMillis(completed == 0 ? 0.0 : totalWaitNanos.get() / (double) completed / 1_000_000.0)
+                .maxWaitMillis(maxWaitNanos.get() / 1_000_000.0)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        lock.lock();
+        try {
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        workers.forEach(Thread::interrupt);
+    }
+
+    private void workerLoop() {
+        while (running) {
+            Task<?> task;
+            lock.lock();
+            try {
+                while (ready.isEmpty()) {
+                    if (!running) {
+                        return;
+                    }
+                    notEmpty.await();
+                }
+                // Siguiente sesión en turno; si le quedan tareas vuelve al final de la fila
+                Session session = ready.poll();
+                task = session.queue.poll();
+                if (!session.queue.isEmpty()) {
+                    ready.add(session);
+                }
+                queued--;
+                notFull.signal();
+            } catch (InterruptedException e) {
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            recordWait(System.nanoTime() - task.enqueuedAt);
+            activeTasks.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeTasks.decrementAndGet();
+                completedTasks.incrementAndGet();
+                // Una cancelación con interrupción no debe afectar a la siguiente tarea
+                Thread.interrupted();
+            }
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private static final class Task<T> extends FutureTask<T> {
+        private final long enqueuedAt = System.nanoTime();
+        private final Callable<T> callable;
+
+        private Task(Callable<T> callable) {
+            super(callable);
+            this.callable = callable;
+        }
+    }
+
+    /**
+     * Cola de tareas de una petición.
+     */
+    public final class Session implements AutoCloseable {
+        private final ArrayDeque<Task<?>> queue = new ArrayDeque<>();
+        private boolean closed;
+
+        private Session() {
+        }
+
+        /**
+         * Encola una tarea de esta petición. Bloquea mientras la cola global está llena.
+         */
+        public <T> Future<T> submit(Callable<T> callable) {
+            Task<T> task = new Task<>(callable);
+            lock.lock();
+            try {
+                while (queued >= queueCapacity && running && !closed) {
+                    notFull.await();
+                }
+                if (!running || closed) {
+                    throw new IllegalStateException("CalculationScheduler detenido o sesión cerrada");
+                }
+                queue.add(task);
+                if (queue.size() == 1) {
+                    ready.add(this);
+                }
+                queued++;
+                notEmpty.signal();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando hueco en la cola de cálculo", e);
+            } finally {
+                lock.unlock();
+            }
+            return task;
+        }
+
+        /**
+         * Encola una subtarea de una tarea en curso de esta sesión, delante de las demás y sin
+         * esperar hueco en la cola (quien la lanza ya ocupa un hilo y el número de subtareas
+         * está acotado por él). El resultado se recoge con {@link #join(Future)}.
+         */
+        public <T> Future<T> fork(Callable<T> callable) {
+            Task<T> task = new Task<>(callable);
+            lock.lock();
+            try {
+                if (!running || closed) {
+                    throw new IllegalStateException("CalculationScheduler detenido o sesión cerrada");
+                }
+                queue.addFirst(task);
+                if (queue.size() == 1) {
+                    ready.add(this);
+                }
+                queued++;
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+            return task;
+        }
+
+        /**
+         * Resultado de una subtarea de fork. Si ningún hilo la ha empezado se cancela y se
+         * ejecuta en el hilo actual; si no, se espera a que termine.
+         */
+        public <T> T join(Future<T> future) throws Exception {
+            if (future instanceof Task && future.cancel(false)) {
+                return ((Task<T>) future).callable.call();
+            }
+            try {
+                return future.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+        }
+
+        /**
+         * Descarta las tareas que aún no han empezado y libera la plaza de admisión.
+         */
+        @Override
+        public void close() {
+            List<Task<?>> dropped;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                dropped = new ArrayList<>(queue);
+                queued -= queue.size();
+                queue.clear();
+                ready.remove(this);
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            dropped.forEach(t -> t.cancel(false));
+            activeSessions.decrementAndGet();
+            admission.release();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.nectum.tradingv25.service.calculation;
 
 import com.nectum.tradingv25.model.request.ListCastRequest;
+import com.nectum.tradingv25.service.calculation.plan.ConditionPlan;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -11,8 +12,26 @@ public interface CalculationService {
      */
     void processConditionsStreaming(ListCastRequest request, OutputStream outputStream) throws IOException;
 
+    /**
+     * Streaming secuencial en el formato indicado
+     */
+    void processConditionsStreaming(ListCastRequest request, ResultFormat format, OutputStream outputStream) throws IOException;
+
     /**
      * Nueva versión: streaming en paralelo por idnectum
      */
     void processConditionsStreamingParallel(ListCastRequest request, OutputStream outputStream) throws IOException;
+
+    /**
+     * Streaming en paralelo con las condiciones ya compiladas (y validadas) y una sesión ya admitida
+     * por el CalculationScheduler (el llamante la abre antes de empezar a responder y la cierra al terminar).
+     */
+    void processConditionsStreamingParallel(ListCastRequest request, ConditionPlan plan, OutputStream outputStream,
+                                            CalculationScheduler.Session session) throws IOException;
+
+    /**
+     * Igual que la anterior, en el formato de salida negociado (JSON o binario por columnas).
+     */
+    void processConditionsStreamingParallel(ListCastRequest request, ConditionPlan plan, ResultFormat format,
+                                            OutputStream outputStream, CalculationScheduler.Session session) throws IOException;
 }
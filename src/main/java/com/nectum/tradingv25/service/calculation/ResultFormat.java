@@ -0,0 +1,71 @@
+package com.nectum.tradingv25.service.calculation;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * Formato de la respuesta de /list_cast_conditions, elegido por la cabecera Accept.
+ *
+ * - JSON (por defecto): un objeto JSON por línea e idnectum.
+ * - COLUMNAR: binario por columnas (ver ColumnarResultWriter), para clientes que reconstruyen
+ *   arrays numéricos (numpy/pandas) sin parsear texto.
+ */
+public enum ResultFormat {
+    JSON(MediaType.APPLICATION_JSON_VALUE),
+    COLUMNAR(ResultFormat.COLUMNAR_MEDIA_TYPE);
+
+    public static final String COLUMNAR_MEDIA_TYPE = "application/vnd.nectum.columnar";
+
+    private final String mediaType;
+
+    ResultFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * El formato con mayor q en el Accept; JSON si empatan (es el formato por defecto), si no se
+     * pide ninguno o si no se entiende. La q de cada formato es la del rango más específico que lo
+     * incluye (RFC 9110, 12.5.1): con "application/json, application/vnd.nectum.columnar;q=0.1"
+     * gana JSON.
+     */
+    public static ResultFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            double columnar = quality(mediaTypes, MediaType.valueOf(COLUMNAR_MEDIA_TYPE));
+            return columnar > quality(mediaTypes, MediaType.APPLICATION_JSON) ? COLUMNAR : JSON;
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+    }
+
+    /**
+     * q del rango más específico de mediaTypes que incluye target (la mayor si hay varios igual de
+     * específicos); 0 si ninguno lo incluye.
+     */
+    private static double quality(List<MediaType> mediaTypes, MediaType target) {
+        int specificity = -1;
+        double quality = 0;
+        for (MediaType mediaType : mediaTypes) {
+            if (!mediaType.includes(target)) {
+                continue;
+            }
+            int s = mediaType.isWildcardType() ? 0 : mediaType.isWildcardSubtype() ? 1 : 2;
+            if (s > specificity) {
+                specificity = s;
+                quality = mediaType.getQualityValue();
+            } else if (s == specificity) {
+                quality = Math.max(quality, mediaType.getQualityValue());
+            }
+        }
+        return quality;
+    }
+}
@@ -0,0 +1,208 @@
+package com.nectum.tradingv25.service.calculation.impl;
+
+import com.nectum.tradingv25.series.BarStore;
+import com.nectum.tradingv25.service.calculation.plan.ConditionPlan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Salida binaria por columnas (application/vnd.nectum.columnar), en la línea de un stream IPC de
+ * Arrow pero sin dependencias: un esquema al principio y después lotes de columnas contiguas,
+ * escritos directamente desde los buffers de cada bloque. Cada columna de un lote se puede leer
+ * con numpy.frombuffer sin convertir nada.
+ *
+ * Todo en little-endian:
+ *  - Cabecera: "NCOL", u8 versión (1), u16 número de columnas y por columna u8 tipo,
+ *    u16 longitud y nombre en UTF-8.
+ *  - Lote (uno por bloque de hasta PAGE_SIZE barras, al menos uno por idnectum): u8 'B',
+ *    i64 idnectum (Long.MIN_VALUE si es null), i32 filas y cada columna del esquema en orden
+ *    (filas * tamaño del tipo).
+ *  - Fin: u8 'E'.
+ *
+ * Columnas: fecha (INT32, días desde 1970-01-01, numpy datetime64[D]), open, high, low, close
+ * (FLOAT64, NaN si falta), volume (INT64), las de indicador (FLOAT64, mismos nombres que en JSON),
+ * entry_decicion_N / exit_decicion_N (BOOL, un byte) y, con seguimiento de posiciones, position
+ * (INT8). Las operaciones y el resumen del backtest solo se incluyen en la salida JSON.
+ */
+final class ColumnarResultWriter extends ResultWriter {
+
+    private static final byte INT32 = 1;
+    private static final byte FLOAT64 = 2;
+    private static final byte INT64 = 3;
+    private static final byte BOOL = 4;
+    private static final byte INT8 = 5;
+
+    private static final byte VERSION = 1;
+    private static final byte BATCH = 'B';
+    private static final byte END = 'E';
+
+    private final byte[] header;
+
+    ColumnarResultWriter(ConditionPlan plan, int blockSize) {
+        super(plan, blockSize);
+
+        List<String> names = new ArrayList<>();
+        List<Byte> types = new ArrayList<>();
+        names.add("fecha");
+        types.add(INT32);
+        for (String price : new String[]{"open", "high", "low", "close"}) {
+            names.add(price);
+            types.add(FLOAT64);
+        }
+        names.add("volume");
+        types.add(INT64);
+        for (int c = 0; c < columnOperands.length; c++) {
+            names.add(columnOperands[c].getColumnName());
+            types.add(FLOAT64);
+        }
+        for (String decision : decisionNames) {
+            names.add(decision);
+            types.add(BOOL);
+        }
+        if (positionRules != null) {
+            names.add("position");
+            types.add(INT8);
+        }
+
+        List<byte[]> encoded = new ArrayList<>(names.size());
+        int size = 4 + 1 + 2;
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += 1 + 2 + bytes.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put("NCOL".getBytes(StandardCharsets.US_ASCII));
+        buffer.put(VERSION);
+        buffer.putShort((short) names.size());
+        for (int i = 0; i < names.size(); i++) {
+            buffer.put(types.get(i));
+            buffer.putShort((short) encoded.get(i).length);
+            buffer.put(encoded.get(i));
+        }
+        this.header = buffer.array();
+    }
+
+    @Override
+    void writeHeader(OutputStream outputStream) throws IOException {
+        outputStream.write(header);
+    }
+
+    @Override
+    void writeTrailer(OutputStream outputStream) throws IOException {
+        outputStream.write(END);
+    }
+
+    @Override
+    ColumnarTicker open(OutputStream outputStream, Long idnectum) {
+        return new ColumnarTicker(outputStream, idnectum, false);
+    }
+
+    /**
+     * Tramo: sus lotes tal cual (cada lote es independiente).
+     */
+    @Override
+    ColumnarTicker openPart(OutputStream outputStream, Long idnectum) {
+        return new ColumnarTicker(outputStream, idnectum, true);
+    }
+
+    /**
+     * Salida binaria de un idnectum: un lote por bloque.
+     */
+    final class ColumnarTicker extends Ticker {
+
+        private final OutputStream outputStream;
+        private final long idnectum;
+        private final boolean part;
+        /** Buffer de una columna de un bloque (8 bytes por fila como mucho). */
+        private final ByteBuffer buffer = ByteBuffer.allocate(Math.max(13, 8 * blockSize)).order(ByteOrder.LITTLE_ENDIAN);
+        private int batches;
+
+        private ColumnarTicker(OutputStream outputStream, Long idnectum, boolean part) {
+            this.outputStream = outputStream;
+            this.idnectum = idnectum != null ? idnectum : Long.MIN_VALUE;
+            this.part = part;
+        }
+
+        @Override
+        void writeBlock(BarStore store, int from, int n) throws IOException {
+            buffer.clear();
+            buffer.put(BATCH).putLong(idnectum).putInt(n);
+            flushBuffer();
+            batches++;
+            if (n == 0) {
+                return;
+            }
+
+            for (int i = from; i < from + n; i++) {
+                buffer.putInt((int) store.epochDay(i));
+            }
+            flushBuffer();
+            for (int i = from; i < from + n; i++) {
+                buffer.putDouble(store.open(i));
+            }
+            flushBuffer();
+            for (int i = from; i < from + n; i++) {
+                buffer.putDouble(store.high(i));
+            }
+            flushBuffer();
+            for (int i = from; i < from + n; i++) {
+                buffer.putDouble(store.low(i));
+            }
+            flushBuffer();
+            for (int i = from; i < from + n; i++) {
+                buffer.putDouble(store.close(i));
+            }
+            flushBuffer();
+            for (int i = from; i < from + n; i++) {
+                buffer.putLong(store.volume(i));
+            }
+            flushBuffer();
+
+            for (int slot : columnSlots) {
+                buffer.asDoubleBuffer().put(columns[slot], 0, n);
+                buffer.position(8 * n);
+                flushBuffer();
+            }
+            for (int d = 0; d < decisions.length; d++) {
+                for (int row = 0; row < n; row++) {
+                    buffer.put(decisions[d].get(row) ? (byte) 1 : (byte) 0);
+                }
+                flushBuffer();
+            }
+            if (tracksPositions()) {
+                for (int row = 0; row < n; row++) {
+                    buffer.put((byte) position(store, from + row, row));
+                }
+                flushBuffer();
+            }
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (batches == 0 && !part) {
+                // Un idnectum sin barras en el rango también aparece, con un lote vacío
+                writeBlock(null, 0, 0);
+            }
+        }
+
+        @Override
+        void appendPart(byte[] part) throws IOException {
+            if (part.length > 0) {
+                outputStream.write(part);
+                batches++;
+            }
+        }
+
+        private void flushBuffer() throws IOException {
+            outputStream.write(buffer.array(), 0, buffer.position());
+            buffer.clear();
+        }
+    }
+}
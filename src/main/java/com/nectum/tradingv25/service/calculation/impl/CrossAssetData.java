@@ -0,0 +1,171 @@
+package com.nectum.tradingv25.service.calculation.impl;
+
+import com.nectum.tradingv25.indicator.fast.FastIndicator;
+import com.nectum.tradingv25.series.BarStore;
+import com.nectum.tradingv25.service.calculation.plan.Operand;
+import org.ta4j.core.Indicator;
+import org.ta4j.core.num.Num;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Activos referenciados por asset_name / other_asset_name en una petición. Cada activo se carga
+ * una sola vez y sus indicadores se materializan en double[] sobre sus propias barras; después es
+ * de solo lectura y lo comparten todos los idnectums (y hilos) de la petición, así que con 2.000
+ * tickers contra un índice el índice se calcula una vez.
+ *
+ * Alineación por fecha (as-of join): en la barra del ticker con fecha d se usa la última barra
+ * del activo con fecha <= d (NaN si el activo aún no tiene barras). El day_offset se cuenta en
+ * barras del activo y el operador se aplica como en la serie propia.
+ */
+final class CrossAssetData {
+
+    static final CrossAssetData EMPTY = new CrossAssetData();
+
+    private final Map<Long, Asset> assets = new LinkedHashMap<>();
+
+    boolean isEmpty() {
+        return assets.isEmpty();
+    }
+
+    /**
+     * Registra un activo con sus size primeras barras y materializa los indicadores que piden sus operandos.
+     */
+    void add(Long idnectum, BarStore store, int size, DefaultCalculationService.IndicatorLookup indicators,
+             List<Operand> operands) {
+        long[] days = new long[size];
+        for (int i = 0; i < size; i++) {
+            days[i] = store.epochDay(i);
+        }
+        Asset asset = new Asset(assets.size(), days);
+        for (Operand operand : operands) {
+            String key = valuesKey(operand);
+            if (key == null || asset.values.containsKey(key)) {
+                continue;
+            }
+            String name = operand.isMaxh() ? "maxh" : operand.getIndicator();
+            asset.values.put(key, materialize(indicators.get(name, operand.getPeriod()), size));
+        }
+        assets.put(idnectum, asset);
+    }
+
+    /**
+     * Alineación de un ticker: buffers propios, uno por activo, reutilizados de bloque en bloque.
+     */
+    Alignment alignment(int blockSize) {
+        return new Alignment(blockSize);
+    }
+
+    private static double[] materialize(Indicator<Num> indicator, int size) {
+        if (size == 0) {
+            return new double[0];
+        }
+        double[] values = new double[size];
+        if (indicator instanceof FastIndicator) {
+            ((FastIndicator) indicator).copyValues(0, values, 0, size);
+            return values;
+        }
+        for (int i = 0; i < size; i++) {
+            values[i] = indicator.getValue(i).doubleValue();
+        }
+        return values;
+    }
+
+    /** null = operando sin indicador (vale 0). */
+    private static String valuesKey(Operand operand) {
+        if (operand.isMaxh()) {
+            return "maxh|" + operand.getPeriod();
+        }
+        return operand.getIndicator() == null ? null
+                : operand.getIndicator().trim().toLowerCase() + "|" + operand.getPeriod();
+    }
+
+    private static final class Asset {
+        private final int slot;
+        private final long[] days;
+        private final Map<String, double[]> values = new HashMap<>();
+
+        private Asset(int slot, long[] days) {
+            this.slot = slot;
+            this.days = days;
+        }
+
+        /** Última barra con fecha <= day, -1 si no hay. */
+        private int asOf(long day) {
+            int i = Arrays.binarySearch(days, day);
+            if (i >= 0) {
+                // Con fechas repetidas, la última
+                while (i + 1 < days.length && days[i + 1] == day) {
+                    i++;
+                }
+                return i;
+            }
+            return -i - 2;
+        }
+    }
+
+    final class Alignment {
+        /** joins[activo][fila] = barra del activo para la fila del bloque (-1 = ninguna). */
+        private final int[][] joins;
+
+        private Alignment(int blockSize) {
+            this.joins = new int[assets.size()][blockSize];
+        }
+
+        /**
+         * Calcula la barra de cada activo para las n barras del ticker desde from. Se hace una vez
+         * por bloque y la comparten todos los operandos del mismo activo.
+         */
+        void align(BarStore target, int from, int n) {
+            if (n == 0) {
+                return;
+            }
+            for (Asset asset : assets.values()) {
+                int[] join = joins[asset.slot];
+                long[] days = asset.days;
+                int j = asset.asOf(target.epochDay(from));
+                join[0] = j;
+                for (int row = 1; row < n; row++) {
+                    long day = target.epochDay(from + row);
+                    while (j + 1 < days.length && days[j + 1] <= day) {
+                        j++;
+                    }
+                    join[row] = j;
+                }
+            }
+        }
+
+        /**
+         * out[row] = valor del operando para las n filas del último bloque alineado.
+         */
+        void fill(Operand operand, int n, double[] out) {
+            Asset asset = assets.get(operand.getAsset());
+            int[] join = joins[asset.slot];
+            String key = valuesKey(operand);
+            double[] values = key != null ? asset.values.get(key) : null;
+
+            if (operand.isMaxh()) {
+                // Como en la serie propia: en la barra, sin offset ni operador
+                for (int row = 0; row < n; row++) {
+                    out[row] = join[row] < 0 ? Double.NaN : values[join[row]];
+                }
+                return;
+            }
+            int offset = operand.getDayOffset();
+            int size = asset.days.length;
+            for (int row = 0; row < n; row++) {
+                int j = join[row];
+                int k = j + offset;
+                if (j < 0 || k < 0 || k >= size) {
+                    out[row] = Double.NaN;
+                } else {
+                    out[row] = operand.apply(values != null ? values[k] : 0.0);
+                }
+            }
+        }
+    }
+}
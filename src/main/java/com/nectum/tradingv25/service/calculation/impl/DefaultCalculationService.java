@@ -1,17 +1,23 @@
 package com.nectum.tradingv25.service.calculation.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.nectum.tradingv25.model.entity.HistoricalData;
-import com.nectum.tradingv25.model.request.ListCastCondition;
+import com.nectum.tradingv25.cache.SeriesCacheService;
+import com.nectum.tradingv25.compression.ResponseEncoder;
+import com.nectum.tradingv25.indicator.fast.FastIndicator;
 import com.nectum.tradingv25.model.request.ListCastRequest;
-import com.nectum.tradingv25.model.response.OrderedResultData;
-import com.nectum.tradingv25.repository.HistoricalDataRepository;
+import com.nectum.tradingv25.repository.HistoricalDataPager;
+import com.nectum.tradingv25.series.BarStore;
+import com.nectum.tradingv25.service.calculation.CalculationIoExecutor;
+import com.nectum.tradingv25.service.calculation.CalculationScheduler;
 import com.nectum.tradingv25.service.calculation.CalculationService;
+import com.nectum.tradingv25.service.calculation.ResultFormat;
+import com.nectum.tradingv25.service.calculation.plan.CompiledCondition;
+import com.nectum.tradingv25.service.calculation.plan.ConditionPlan;
+import com.nectum.tradingv25.service.calculation.plan.Operand;
 import com.nectum.tradingv25.indicator.ta4j.Ta4jIndicatorService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.Indicator;
@@ -20,8 +26,6 @@ import org.ta4j.core.num.Num;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -33,25 +37,68 @@ import java.util.concurrent.*;
 @Slf4j
 public class DefaultCalculationService implements CalculationService {
 
-    private final HistoricalDataRepository historicalDataRepository;
+    private final HistoricalDataPager historicalDataPager;
+    private final SeriesCacheService seriesCacheService;
+    private final CalculationScheduler calculationScheduler;
+    private final CalculationIoExecutor calculationIoExecutor;
     private final Ta4jIndicatorService ta4jIndicatorService;
     private final ObjectMapper objectMapper;
 
+    /**
+     * true: evaluar sobre las series e indicadores cacheados (histórico completo).
+     * false: leer de Mongo desde start en cada petición.
+     */
+    @Value("${calculation.series-cache.enabled:true}")
+    private boolean useSeriesCache = true;
+
+    /**
+     * Máximo de idnectums lanzados y aún sin escribir en la versión paralela (0 = el doble de hilos del planificador).
+     */
+    @Value("${calculation.parallel.window:0}")
+    private int parallelWindow;
+
+    /**
+     * Versión paralela: "pool" (carga y cálculo en el planificador) o "staged" (carga en
+     * CalculationIoExecutor, cálculo en el planificador).
+     */
+    @Value("${calculation.parallel.mode:pool}")
+    private String parallelMode = "pool";
+
+    /**
+     * Versión paralela con caché de series: mínimo de barras por tramo al repartir un idnectum
+     * largo entre varios hilos (0 = sin tramos).
+     */
+    @Value("${calculation.partition.min-bars:5000}")
+    private int partitionMinBars = 5000;
+
+    /**
+     * Versión paralela con caché de series y menos idnectums que hilos: materializar en paralelo
+     * los indicadores distintos de cada idnectum antes de evaluar las condiciones.
+     */
+    @Value("${calculation.parallel.indicators:true}")
+    private boolean parallelIndicators = true;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int PAGE_SIZE = 1000;
+    private static final int MIN_LOOKBACK = 250;
 
-    private Date parseDate(String dateStr) {
+    /**
+     * Convierte "yyyy-MM-dd" en epochDay, la misma unidad que guarda el BarStore.
+     */
+    private long parseDay(String dateStr) {
         try {
-            LocalDate localDate = LocalDate.parse(dateStr.trim(), DATE_FORMATTER);
-            return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            return LocalDate.parse(dateStr.trim(), DATE_FORMATTER).toEpochDay();
         } catch (Exception e) {
             throw new RuntimeException("Error parsing date: " + dateStr, e);
         }
     }
 
-    private String formatDate(Date date) {
-        // Convertir Date a LocalDate usando la zona horaria del sistema
-        LocalDate localDate = date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
-        return DATE_FORMATTER.format(localDate);
+    /**
+     * Último día a emitir (inclusive): request.end, o sin límite si no viene.
+     */
+    private long endDayOf(ListCastRequest request) {
+        String end = request.getEnd();
+        return (end == null || end.isBlank()) ? Long.MAX_VALUE : parseDay(end);
     }
 
     // --------------------------------------------------------------------
@@ -59,364 +106,686 @@ public class DefaultCalculationService implements CalculationService {
     // --------------------------------------------------------------------
     @Override
     public void processConditionsStreaming(ListCastRequest request, OutputStream outputStream) throws IOException {
-        Date startDate = parseDate(request.getStart());
+        processConditionsStreaming(request, ResultFormat.JSON, outputStream);
+    }
 
-        // Iteramos sobre cada idnectum
+    @Override
+    public void processConditionsStreaming(ListCastRequest request, ResultFormat format, OutputStream outputStream) throws IOException {
+        long startDay = parseDay(request.getStart());
+        long endDay = endDayOf(request);
+        ConditionPlan plan = ConditionPlan.compile(request);
+        ResultWriter rowWriter = newResultWriter(plan, format);
+        CrossAssetData assets = loadAssets(plan, startDay, endDay);
+
+        rowWriter.writeHeader(outputStream);
+        // Iteramos sobre cada idnectum; flush al terminar cada uno, no por fila (la política
+        // de flush de la respuesta decide si llega al cliente)
         for (Long idnectum : request.getIdnectums()) {
-            // Escribe la cabecera del objeto JSON: {"idnectum":X,"result":[
-            String jsonHead = String.format("{\"idnectum\":%d,\"result\":[", idnectum);
-            outputStream.write(jsonHead.getBytes(StandardCharsets.UTF_8));
+            streamIdnectum(idnectum, plan, rowWriter, assets, startDay, endDay, outputStream, null);
             outputStream.flush();
+        }
+        rowWriter.writeTrailer(outputStream);
+        outputStream.flush();
+    }
 
-            boolean firstRecord = true;
-            // Aquí se almacena el estado acumulado para el idnectum (por ejemplo, running max para "maxh")
-            Map<String, Object> globalState = new HashMap<>();
-            globalState.put("runningMax", Double.NEGATIVE_INFINITY);
+    private ResultWriter newResultWriter(ConditionPlan plan, ResultFormat format) {
+        return format == ResultFormat.COLUMNAR
+                ? new ColumnarResultWriter(plan, PAGE_SIZE)
+                : new JsonRowWriter(objectMapper.getFactory(), plan, PAGE_SIZE);
+    }
 
-            // Paginación
-            int pageNumber = 0;
-            int pageSize = 1000;
-            while (true) {
-                Page<HistoricalData> page = historicalDataRepository.findByIdnectumAndFechaGreaterThanEqual(
-                        idnectum,
-                        startDate,
-                        PageRequest.of(pageNumber, pageSize)
-                );
-                List<HistoricalData> chunk = page.getContent();
+    /**
+     * Escribe el JSON de un idnectum: {"idnectum":X,"result":[...]} con las barras cuya fecha
+     * está en [start, end].
+     */
+    private void streamIdnectum(Long idnectum,
+                                ConditionPlan plan,
+                                ResultWriter rowWriter,
+                                CrossAssetData assets,
+                                long startDay,
+                                long endDay,
+                                OutputStream outputStream,
+                                TickerParallelism parallelism) throws IOException {
+        // Escribe la cabecera del objeto JSON: {"idnectum":X,"result":[
+        ResultWriter.Ticker ticker = rowWriter.open(outputStream, idnectum);
+
+        if (useSeriesCache) {
+            streamCachedIdnectum(idnectum, plan, rowWriter, assets, startDay, endDay, ticker, parallelism);
+        } else {
+            streamPagedIdnectum(idnectum, plan, assets.alignment(ticker.getBlockSize()), startDay, endDay, ticker);
+        }
 
-                if (chunk.isEmpty()) {
-                    break;
-                }
+        // Cerrar el array "result" y el objeto JSON
+        ticker.finish();
+    }
 
-                BarSeries series = ta4jIndicatorService.buildBarSeries(
-                        "idnectum_" + idnectum + "_page_" + pageNumber,
-                        chunk
-                );
+    /**
+     * Evalúa sobre la serie completa cacheada en SeriesCacheService y emite solo el rango pedido.
+     * Los indicadores se comparten entre peticiones (por idnectum, indicador y periodo), así que
+     * llegan a start ya calentados con todo el histórico anterior y no se recalculan por petición.
+     *
+     * Con parallelism (versión paralela con hilos de sobra) los indicadores de las condiciones se
+     * materializan antes en paralelo (ver materializeIndicators) y un rango largo se reparte en
+     * tramos de bloques enteros que se evalúan y escriben en paralelo (ver writePartitioned).
+     */
+    private void streamCachedIdnectum(Long idnectum,
+                                      ConditionPlan plan,
+                                      ResultWriter rowWriter,
+                                      CrossAssetData assets,
+                                      long startDay,
+                                      long endDay,
+                                      ResultWriter.Ticker ticker,
+                                      TickerParallelism parallelism) throws IOException {
+        SeriesCacheService.CachedSeries cached = seriesCacheService.getOrLoad(idnectum);
+        BarStore store = cached.getStore();
+        BarSeries series = store.asBarSeries();
+
+        // Barras existentes al empezar: las que se añadan durante la petición no se emiten
+        int from = store.indexOfDay(startDay);
+        int end = endIndexOf(store, endDay, store.size());
+        IndicatorLookup indicators = (name, period) -> seriesCacheService.getOrCreateIndicator(cached, name, period);
+
+        if (parallelism != null && parallelism.indicators) {
+            materializeIndicators(idnectum, plan, series, from, end, indicators, parallelism.session);
+        }
+        int parts = parallelism != null && !plan.tracksPositions()
+                ? parallelism.partsFor(end - from, ticker.getBlockSize()) : 1;
+        if (parts > 1) {
+            writePartitioned(idnectum, plan, rowWriter, assets, store, series, from, end, parts, indicators,
+                    parallelism.session, ticker, parallelism.indicators);
+        } else {
+            writeRange(plan, store, series, from, end, indicators, assets.alignment(ticker.getBlockSize()), ticker);
+        }
+    }
 
-                // Cache local de indicadores para la página
-                Map<String, Indicator<Num>> indicatorCache = new HashMap<>();
+    /**
+     * Reparte las barras [from, end) en parts tramos de bloques enteros, los evalúa y escribe en
+     * paralelo como subtareas de la sesión y los pega en orden: la salida es la misma que con
+     * writeRange, con los mismos lotes.
+     *
+     * Calentamiento: los indicadores cacheados cubren todo el histórico, así que cada tramo parte
+     * del estado exacto de la barra anterior (no de un calentamiento recortado que aproximaría
+     * EMA, RSI, etc.). Sin materializeIndicators previo, cada indicador se calcula antes hasta la
+     * última barra que se va a leer: los recursivos se calculan una vez en orden en lugar de en
+     * el primer tramo que los pida con los demás esperando.
+     */
+    private void writePartitioned(Long idnectum,
+                                  ConditionPlan plan,
+                                  ResultWriter rowWriter,
+                                  CrossAssetData assets,
+                                  BarStore store,
+                                  BarSeries series,
+                                  int from,
+                                  int end,
+                                  int parts,
+                                  IndicatorLookup indicators,
+                                  CalculationScheduler.Session session,
+                                  ResultWriter.Ticker ticker,
+                                  boolean materialized) throws IOException {
+        if (!materialized) {
+            warmUp(plan, series, end, indicators);
+        }
 
-                // Recorrer cada registro en la página
-                for (int i = 0; i < chunk.size(); i++) {
-                    HistoricalData hd = chunk.get(i);
-                    // (a) Crear un OrderedResultData (OHLCV + indicadores)
-                    OrderedResultData ord = new OrderedResultData();
-                    ord.addOHLCV(
-                            hd.getOpen(),
-                            hd.getMaximo(),
-                            hd.getMinimo(),
-                            hd.getClose(),
-                            hd.getVolumen() != null ? hd.getVolumen().doubleValue() : 0.0
-                    );
-
-                    // (b) Procesar indicadores (por ejemplo, "maxh" u otros)
-                    if (request.getList_conditions_entry() != null) {
-                        processIndicatorsInOrder(
-                                request.getList_conditions_entry(),
-                                ord,
-                                series,
-                                i,
-                                indicatorCache,
-                                globalState
-                        );
-                    }
+        int blockSize = ticker.getBlockSize();
+        int blocks = (end - from + blockSize - 1) / blockSize;
+        int blocksPerPart = (blocks + parts - 1) / parts;
+        List<Callable<byte[]>> tasks = new ArrayList<>(parts);
+        for (int partFrom = from; partFrom < end; partFrom += blocksPerPart * blockSize) {
+            int lo = partFrom;
+            int hi = Math.min(end, partFrom + blocksPerPart * blockSize);
+            tasks.add(() -> {
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                ResultWriter.Ticker part = rowWriter.openPart(bos, idnectum);
+                writeRange(plan, store, series, lo, hi, indicators, assets.alignment(blockSize), part);
+                part.finish();
+                return bos.toByteArray();
+            });
+        }
 
-                    // (c) Agregar la fecha
-                    ord.setFecha(formatDate(hd.getFecha()));
+        // El primer tramo en este hilo; los demás, a la cola de la sesión
+        List<Future<byte[]>> forked = new ArrayList<>(tasks.size() - 1);
+        try {
+            for (int p = 1; p < tasks.size(); p++) {
+                forked.add(session.fork(tasks.get(p)));
+            }
+            ticker.appendPart(tasks.get(0).call());
+            for (Future<byte[]> future : forked) {
+                ticker.appendPart(session.join(future));
+            }
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Error en un tramo de idnectum=" + idnectum, e);
+        } finally {
+            forked.forEach(f -> f.cancel(true));
+        }
+        log.debug("[idnectum={}] {} barras escritas en {} tramos", idnectum, end - from, tasks.size());
+    }
 
-                    // (d) Finalizar el objeto
-                    ord.finalizeOrder();
+    /**
+     * Calcula los indicadores de las condiciones hasta la última barra que leerá la evaluación
+     * de [.., end) (ver writePartitioned).
+     */
+    private void warmUp(ConditionPlan plan, BarSeries series, int end, IndicatorLookup indicators) {
+        int last = Math.min(series.getEndIndex(), end - 1 + Math.max(0, plan.maxForwardOffset()));
+        if (last < 0) {
+            return;
+        }
+        for (Operand operand : plan.slots()) {
+            if (operand == null || operand.isCrossAsset()) {
+                continue;
+            }
+            Indicator<Num> indicator;
+            if (operand.isMaxh()) {
+                indicator = indicators.get("maxh", operand.getPeriod());
+            } else if (operand.getIndicator() != null) {
+                indicator = indicators.get(operand.getIndicator(), operand.getPeriod());
+            } else {
+                continue;
+            }
+            if (indicator instanceof FastIndicator) {
+                ((FastIndicator) indicator).values(last);
+            } else {
+                indicator.getValue(last);
+            }
+        }
+    }
 
-                    // (e) Separador de registros (coma si no es el primero)
-                    if (!firstRecord) {
-                        outputStream.write(',');
-                    }
-                    firstRecord = false;
+    /**
+     * Materializa como columnas completas, en paralelo, los indicadores distintos que leerá la
+     * evaluación de las barras [from, end): cada uno sobre su rango de lectura (desplazado por
+     * los day_offset), uno por subtarea de la sesión. Después las condiciones y las filas solo
+     * leen valores ya calculados.
+     *
+     * El conjunto se arma por instancia, así que dos operandos con el mismo indicador (o con
+     * nombres que la caché resuelve al mismo) cuentan una vez. Los subindicadores compartidos
+     * entre indicadores distintos (la media de las bandas de Bollinger, etc.) los calcula el
+     * primero que los pide; el resto espera a ese cálculo en lugar de repetirlo.
+     */
+    private void materializeIndicators(Long idnectum,
+                                       ConditionPlan plan,
+                                       BarSeries series,
+                                       int from,
+                                       int end,
+                                       IndicatorLookup indicators,
+                                       CalculationScheduler.Session session) throws IOException {
+        // Indicador -> {primera, última} barra leída
+        Map<Indicator<Num>, int[]> columns = new IdentityHashMap<>();
+        for (Operand operand : plan.slots()) {
+            if (operand == null || operand.isCrossAsset() || (!operand.isMaxh() && operand.getIndicator() == null)) {
+                continue;
+            }
+            // Los maxh se leen en la barra, sin offset
+            int offset = operand.isMaxh() ? 0 : operand.getDayOffset();
+            int lo = Math.max(0, from + offset);
+            int hi = Math.min(series.getEndIndex(), end - 1 + offset);
+            if (lo > hi) {
+                continue;
+            }
+            Indicator<Num> indicator = operand.isMaxh()
+                    ? indicators.get("maxh", operand.getPeriod())
+                    : indicators.get(operand.getIndicator(), operand.getPeriod());
+            columns.merge(indicator, new int[]{lo, hi},
+                    (a, b) -> new int[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+        }
+        if (columns.size() < 2) {
+            return; // Nada que repartir: la evaluación lo calcula igual
+        }
 
-                    // (f) Convertir a JSON y escribir
-                    byte[] rowJson = objectMapper.writeValueAsBytes(ord);
-                    outputStream.write(rowJson);
-                    outputStream.flush();
-                    log.debug("[idnectum={}] >> Registrado un objeto de {} bytes", idnectum, rowJson.length);
+        List<Callable<Void>> tasks = new ArrayList<>(columns.size());
+        columns.forEach((indicator, range) -> tasks.add(() -> {
+            if (indicator instanceof FastIndicator) {
+                ((FastIndicator) indicator).values(range[1]);
+            } else {
+                for (int i = range[0]; i <= range[1]; i++) {
+                    indicator.getValue(i);
                 }
+            }
+            return null;
+        }));
 
-                if (page.isLast()) {
+        // El primero en este hilo; los demás, a la cola de la sesión
+        List<Future<Void>> forked = new ArrayList<>(tasks.size() - 1);
+        try {
+            for (int t = 1; t < tasks.size(); t++) {
+                forked.add(session.fork(tasks.get(t)));
+            }
+            tasks.get(0).call();
+            for (Future<Void> future : forked) {
+                session.join(future);
+            }
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Error materializando indicadores de idnectum=" + idnectum, e);
+        } finally {
+            forked.forEach(f -> f.cancel(true));
+        }
+        log.debug("[idnectum={}] {} indicadores materializados en paralelo", idnectum, columns.size());
+    }
+
+    /**
+     * Reparto del trabajo de un idnectum entre los hilos que sobran (versión paralela con caché
+     * de series y menos idnectums que hilos), como subtareas de la sesión de la petición:
+     * indicadores materializados en paralelo y como mucho maxParts tramos de al menos minBars barras.
+     */
+    private static final class TickerParallelism {
+        private final CalculationScheduler.Session session;
+        private final int maxParts;
+        private final int minBars;
+        private final boolean indicators;
+
+        private TickerParallelism(CalculationScheduler.Session session, int maxParts, int minBars, boolean indicators) {
+            this.session = session;
+            this.maxParts = maxParts;
+            this.minBars = minBars;
+            this.indicators = indicators;
+        }
+
+        private int partsFor(int bars, int blockSize) {
+            if (minBars <= 0) {
+                return 1;
+            }
+            int blocks = (bars + blockSize - 1) / blockSize;
+            int minBlocks = Math.max(1, (minBars + blockSize - 1) / blockSize);
+            return Math.max(1, Math.min(maxParts, blocks / minBlocks));
+        }
+    }
+
+    /**
+     * Camino sin caché (calculation.series-cache.enabled=false): lee de Mongo desde start.
+     *
+     * Las páginas de Mongo (keyset, con la siguiente ya pedida) se van añadiendo a un único BarStore y los indicadores se crean
+     * una sola vez, así que su estado (warm-up de SMA/EMA/RSI, máximo acumulado, etc.)
+     * continúa entre páginas en lugar de reiniciarse cada 1000 barras.
+     * El BarStore usa una ventana deslizante: solo conserva las barras que piden los periodos
+     * y desplazamientos de las condiciones más la página en curso, así que la memoria no crece
+     * con la longitud del histórico.
+     * Una barra se emite cuando ya están cargadas las barras futuras que piden los day_offset positivos.
+     */
+    private void streamPagedIdnectum(Long idnectum,
+                                     ConditionPlan plan,
+                                     CrossAssetData.Alignment alignment,
+                                     long startDay,
+                                     long endDay,
+                                     ResultWriter.Ticker ticker) throws IOException {
+        int lookahead = plan.maxForwardOffset();
+
+        BarStore store = new BarStore(idnectum, PAGE_SIZE);
+        // Varios creadores usan p * 2; el mínimo cubre los indicadores de parámetros fijos (kst, coppock, ppo, ichimoku...)
+        store.setMaximumBarCount(plan.requiredLookback(MIN_LOOKBACK) + lookahead + PAGE_SIZE);
+        BarSeries series = store.asBarSeries();
+
+        // Cache de indicadores para todo el idnectum (no por página)
+        Map<String, Indicator<Num>> indicatorCache = new HashMap<>();
+        IndicatorLookup indicators = (name, period) -> ta4jIndicatorService.getOrCreateIndicator(series, name, period, indicatorCache);
+
+        int nextIndex = 0;
+        Date startDate = Date.from(LocalDate.ofEpochDay(startDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        try (HistoricalDataPager.Cursor cursor = historicalDataPager.open(idnectum, startDate, PAGE_SIZE)) {
+            while (true) {
+                // La página siguiente ya está en vuelo mientras se evalúa esta
+                BarStore chunk = cursor.next();
+                if (chunk.isEmpty()) {
                     break;
                 }
-                pageNumber++;
-            }
 
-            // Cerrar el array "result" y el objeto JSON
-            outputStream.write("]}".getBytes(StandardCharsets.UTF_8));
-            outputStream.write('\n');
-            outputStream.flush();
+                store.appendAll(chunk);
+
+                // Emitir las barras cuyo day_offset positivo ya tiene datos cargados
+                int ready = store.size() - lookahead;
+                int end = endIndexOf(store, endDay, ready);
+                if (nextIndex < end) {
+                    writeRange(plan, store, series, nextIndex, end, indicators, alignment, ticker);
+                    nextIndex = end;
+                }
+                if (end < ready) {
+                    return; // pasado end
+                }
+            }
         }
+        // Últimas barras (sin más datos futuros)
+        writeRange(plan, store, series, nextIndex, endIndexOf(store, endDay, store.size()), indicators, alignment, ticker);
     }
 
     /**
-     * Aplica todas las condiciones (indicadores) en el barIndex dado.
-     * Se utiliza el parámetro globalState para mantener valores acumulados entre páginas.
+     * Carga una vez por petición los activos de asset_name / other_asset_name y materializa sus
+     * indicadores (ver CrossAssetData). Con caché de series se usan la serie y los indicadores
+     * cacheados; sin ella se lee el activo de Mongo desde start, como los idnectums.
      */
-    private void processIndicatorsInOrder(List<ListCastCondition> conditions,
-                                          OrderedResultData orderedData,
-                                          BarSeries series,
-                                          int barIndex,
-                                          Map<String, Indicator<Num>> indicatorCache,
-                                          Map<String, Object> globalState) {
+    private CrossAssetData loadAssets(ConditionPlan plan, long startDay, long endDay) throws IOException {
+        Set<Long> referenced = plan.referencedAssets();
+        if (referenced.isEmpty()) {
+            return CrossAssetData.EMPTY;
+        }
+        CrossAssetData assets = new CrossAssetData();
+        for (Long asset : referenced) {
+            List<Operand> operands = new ArrayList<>();
+            for (Operand operand : plan.slots()) {
+                if (operand != null && asset.equals(operand.getAsset())) {
+                    operands.add(operand);
+                }
+            }
 
-        for (int cIndex = 0; cIndex < conditions.size(); cIndex++) {
-            ListCastCondition cond = conditions.get(cIndex);
-
-            // Procesamiento del indicador principal
-            double mainValue = Double.NaN;
-            if (cond.getIndicator() != null && cond.getIndicator().toLowerCase().contains("maxh")) {
-                int period = (cond.getPeriod() != null) ? cond.getPeriod() : 14; // Valor por defecto
-                Indicator<Num> maxhIndicator = ta4jIndicatorService.getOrCreateIndicator(series, "maxh", period, indicatorCache);
-                mainValue = maxhIndicator.getValue(barIndex).doubleValue();
+            if (useSeriesCache) {
+                SeriesCacheService.CachedSeries cached = seriesCacheService.getOrLoad(asset);
+                BarStore store = cached.getStore();
+                assets.add(asset, store, store.size(),
+                        (name, period) -> seriesCacheService.getOrCreateIndicator(cached, name, period), operands);
             } else {
-                int offset = (cond.getDay_offset() != null) ? cond.getDay_offset() : 0;
-                int offsetIndex = barIndex + offset;
-                if (offsetIndex >= 0 && offsetIndex < series.getBarCount()) {
-                    mainValue = ta4jIndicatorService.getIndicatorValue(series, offsetIndex, cond, indicatorCache, false);
-                }
+                BarStore store = loadPaged(asset, startDay, endDay);
+                BarSeries series = store.asBarSeries();
+                Map<String, Indicator<Num>> indicatorCache = new HashMap<>();
+                assets.add(asset, store, store.size(),
+                        (name, period) -> ta4jIndicatorService.getOrCreateIndicator(series, name, period, indicatorCache), operands);
             }
-            // Se genera el nombre usando la función unificada
-            String mainName = generateIndicatorName(cond, false);
-            orderedData.addIndicator(mainName, mainValue);
-
-            // Procesamiento del otro indicador (opcional)
-            double otherValue = Double.NaN;
-            if (cond.getOther_indicator() != null) {
-                if (cond.getOther_indicator().toLowerCase().contains("maxh")) {
-                    int period = (cond.getOther_period() != null) ? cond.getOther_period() : 14;
-                    Indicator<Num> maxhIndicator = ta4jIndicatorService.getOrCreateIndicator(series, "maxh", period, indicatorCache);
-                    otherValue = maxhIndicator.getValue(barIndex).doubleValue();
-                } else {
-                    int offsetOther = (cond.getOther_day_offset() != null) ? cond.getOther_day_offset() : 0;
-                    int offsetIndexOther = barIndex + offsetOther;
-                    if (offsetIndexOther >= 0 && offsetIndexOther < series.getBarCount()) {
-                        otherValue = ta4jIndicatorService.getIndicatorValue(series, offsetIndexOther, cond, indicatorCache, true);
-                    }
+        }
+        log.debug("Activos cruzados cargados: {}", referenced);
+        return assets;
+    }
+
+    /**
+     * Todas las páginas de Mongo desde startDay hasta pasar endDay, en un BarStore.
+     */
+    private BarStore loadPaged(Long idnectum, long startDay, long endDay) throws IOException {
+        BarStore store = new BarStore(idnectum, PAGE_SIZE);
+        Date startDate = Date.from(LocalDate.ofEpochDay(startDay).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        try (HistoricalDataPager.Cursor cursor = historicalDataPager.open(idnectum, startDate, PAGE_SIZE)) {
+            while (true) {
+                BarStore chunk = cursor.next();
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                store.appendAll(chunk);
+                if (chunk.epochDay(chunk.size() - 1) > endDay) {
+                    break;
                 }
-                String otherName = generateIndicatorName(cond, true);
-                orderedData.addIndicator(otherName, otherValue);
             }
+        }
+        return store;
+    }
 
-            // Evaluación de la lógica de la condición
-            double comparisonValue = (cond.getOther_indicator() != null)
-                    ? otherValue
-                    : (cond.getConstant() != null ? cond.getConstant() : 0.0);
-            boolean decision = evaluateLogic(cond, mainValue, comparisonValue);
-            orderedData.addEntryDecision(cIndex, decision);
+    /**
+     * Origen de los indicadores de un idnectum: la caché compartida de SeriesCacheService o, sin
+     * caché de series, un mapa propio del idnectum.
+     */
+    @FunctionalInterface
+    interface IndicatorLookup {
+        Indicator<Num> get(String indicatorName, int period);
+    }
+
+    /**
+     * Fin (exclusivo, como mucho limit) de las barras con fecha <= endDay.
+     */
+    private static int endIndexOf(BarStore store, long endDay, int limit) {
+        if (endDay == Long.MAX_VALUE) {
+            return limit;
         }
+        return Math.min(limit, store.indexOfDay(endDay + 1));
     }
 
     /**
-     * Función unificada que genera el nombre del indicador a partir del objeto cond.
-     * Si isOther es true, se utilizan los campos correspondientes a other_indicator;
-     * de lo contrario se utilizan los campos principales.
+     * Evalúa las condiciones sobre las barras [from, to) por columnas y escribe sus filas,
+     * en bloques del tamaño de los buffers del ticker.
      */
-    private String generateIndicatorName(ListCastCondition cond, boolean isOther) {
-        if (isOther) {
-            return String.format(
-                    "%d_%s_%d_%s_%d_%d",
-                    cond.getOther_asset_name() != null ? cond.getOther_asset_name() : 0,
-                    cond.getOther_indicator() != null ? cond.getOther_indicator() : "",
-                    cond.getOther_period() != null ? cond.getOther_period() : 0,
-                    cond.getOther_operador() != null ? cond.getOther_operador() : "sum",
-                    cond.getOther_n_operador() != null ? cond.getOther_n_operador().intValue() : 0,
-                    cond.getOther_day_offset() != null ? cond.getOther_day_offset() : 0
-            );
-        } else {
-            return String.format(
-                    "%d_%s_%d_%s_%d_%d",
-                    cond.getAsset_name() != null ? cond.getAsset_name() : 0,
-                    cond.getIndicator() != null ? cond.getIndicator() : "",
-                    cond.getPeriod() != null ? cond.getPeriod() : 0,
-                    cond.getOperador() != null ? cond.getOperador() : "sum",
-                    cond.getN_operador() != null ? cond.getN_operador().intValue() : 0,
-                    cond.getDay_offset() != null ? cond.getDay_offset() : 0
-            );
+    private void writeRange(ConditionPlan plan,
+                            BarStore store,
+                            BarSeries series,
+                            int from,
+                            int to,
+                            IndicatorLookup indicators,
+                            CrossAssetData.Alignment alignment,
+                            ResultWriter.Ticker ticker) throws IOException {
+        int blockSize = ticker.getBlockSize();
+        for (int blockStart = from; blockStart < to; blockStart += blockSize) {
+            int n = Math.min(blockSize, to - blockStart);
+            alignment.align(store, blockStart, n);
+            evaluateBlock(plan, series, blockStart, n, indicators, alignment, ticker);
+            ticker.writeBlock(store, blockStart, n);
         }
     }
 
     /**
-     * Evalúa la lógica de comparación entre dos valores según el operador especificado en la condición.
+     * Rellena las columnas del ticker para las n barras desde from (una pasada por indicador)
+     * y deja en decisions[c] un bit por barra con el resultado de la condición c.
+     * Los operandos con asset_name leen del activo ya alineado para el bloque.
      */
-    private boolean evaluateLogic(ListCastCondition cond, double mainVal, double otherVal) {
-        if (Double.isNaN(mainVal) || Double.isNaN(otherVal)) return false;
-        if (cond.getLogic_operator() == null) return false;
-
-        switch (cond.getLogic_operator()) {
-            case "<":
-                return mainVal < otherVal;
-            case "<=":
-                return mainVal <= otherVal;
-            case "==":
-                return Math.abs(mainVal - otherVal) < 1e-12;
-            case ">=":
-                return mainVal >= otherVal;
-            case ">":
-                return mainVal > otherVal;
-            default:
-                return false;
+    private void evaluateBlock(ConditionPlan plan,
+                               BarSeries series,
+                               int from,
+                               int n,
+                               IndicatorLookup indicators,
+                               CrossAssetData.Alignment alignment,
+                               ResultWriter.Ticker ticker) {
+        List<CompiledCondition> conditions = plan.getConditions();
+        for (int cIndex = 0; cIndex < conditions.size(); cIndex++) {
+            CompiledCondition cond = conditions.get(cIndex);
+
+            // Indicador principal
+            double[] main = ticker.columns[2 * cIndex];
+            fillOperand(cond.getMain(), series, from, n, indicators, alignment, main);
+
+            // Otro indicador (opcional); sin él se compara contra const
+            double[] comparison = null;
+            if (cond.hasOther()) {
+                comparison = ticker.columns[2 * cIndex + 1];
+                fillOperand(cond.getOther(), series, from, n, indicators, alignment, comparison);
+            }
+
+            cond.decide(main, comparison, n, ticker.decisions[cIndex]);
         }
     }
 
+    /**
+     * out[i] = valor del operando en la barra from + i: indicador en from + i + day_offset
+     * (NaN fuera de la serie) con su operador aplicado. Los "maxh" se leen en la barra,
+     * sin offset ni operador.
+     */
+    private void fillOperand(Operand operand,
+                             BarSeries series,
+                             int from,
+                             int n,
+                             IndicatorLookup indicators,
+                             CrossAssetData.Alignment alignment,
+                             double[] out) {
+        if (operand.isCrossAsset()) {
+            alignment.fill(operand, n, out);
+            return;
+        }
+        if (operand.isMaxh()) {
+            Indicator<Num> maxhIndicator = indicators.get("maxh", operand.getPeriod());
+            for (int i = 0; i < n; i++) {
+                out[i] = maxhIndicator.getValue(from + i).doubleValue();
+            }
+            return;
+        }
+
+        // Filas cuyo índice desplazado cae dentro de la serie: [lo, hi)
+        int shift = from + operand.getDayOffset();
+        int lo = Math.max(0, Math.min(n, -shift));
+        int hi = Math.max(lo, Math.min(n, series.getEndIndex() + 1 - shift));
+        Arrays.fill(out, 0, lo, Double.NaN);
+        Arrays.fill(out, hi, n, Double.NaN);
+
+        if (operand.getIndicator() == null) {
+            Arrays.fill(out, lo, hi, 0.0); // vs. const
+            return;
+        }
+        Indicator<Num> indicator = indicators.get(operand.getIndicator(), operand.getPeriod());
+        if (indicator instanceof FastIndicator) {
+            // Indicador nativo: copia directa de su columna, sin pasar por Num
+            ((FastIndicator) indicator).copyValues(shift + lo, out, lo, hi - lo);
+        } else {
+            for (int i = lo; i < hi; i++) {
+                out[i] = indicator.getValue(shift + i).doubleValue();
+            }
+        }
+        operand.applyTo(out, lo, hi);
+    }
+
     // --------------------------------------------------------------------
     // Implementación paralela nueva
     // --------------------------------------------------------------------
 
     /**
-     * Nueva implementación: Procesa cada idnectum en paralelo utilizando un ThreadPoolExecutor.
+     * Procesa cada idnectum en paralelo en el CalculationScheduler compartido.
      */
     @Override
     public void processConditionsStreamingParallel(ListCastRequest request, OutputStream outputStream) throws IOException {
+        ConditionPlan plan = ConditionPlan.compile(request);
+        try (CalculationScheduler.Session session = calculationScheduler.open()) {
+            processConditionsStreamingParallel(request, plan, outputStream, session);
+        }
+    }
+
+    /**
+     * Procesa cada idnectum en paralelo y escribe los resultados en el orden de la petición
+     * a medida que están listos: el idnectum i se escribe en cuanto él y todos los anteriores
+     * han terminado, sin esperar al resto.
+     *
+     * Contrapresión: como mucho parallelWindow idnectums lanzados y aún sin escribir (en curso o
+     * terminados esperando turno). Al llenarse la ventana se escribe el primero pendiente antes
+     * de lanzar otro, así que la memoria retenida no depende del número de idnectums y un cliente
+     * lento frena también el cálculo.
+     */
+    @Override
+    public void processConditionsStreamingParallel(ListCastRequest request, ConditionPlan plan, OutputStream outputStream,
+                                                   CalculationScheduler.Session session) throws IOException {
+        processConditionsStreamingParallel(request, plan, ResultFormat.JSON, outputStream, session);
+    }
+
+    @Override
+    public void processConditionsStreamingParallel(ListCastRequest request, ConditionPlan plan, ResultFormat format,
+                                                   OutputStream outputStream, CalculationScheduler.Session session) throws IOException {
         log.info("Iniciando processConditionsStreamingParallel. Idnectums: {}", request.getIdnectums());
 
-        int cores = Runtime.getRuntime().availableProcessors();
-        ExecutorService executor = Executors.newFixedThreadPool(cores * 2);
+        int window = parallelWindow > 0 ? parallelWindow : calculationScheduler.getThreads() * 2;
+        // El modo escalonado separa la carga de la serie (E/S) del cálculo; sin caché de series no hay
+        // una etapa de E/S separable y se usa el modo pool
+        boolean staged = useSeriesCache && "staged".equalsIgnoreCase(parallelMode);
 
-        // Generar una tarea (Callable) por cada idnectum
         List<Long> idNectums = request.getIdnectums();
-        List<Callable<IdNectumResult>> callables = new ArrayList<>();
-
-        for (Long id : idNectums) {
-            callables.add(() -> processSingleIdNectumToBytes(id, request));
-        }
+        long startDay = parseDay(request.getStart());
+        long endDay = endDayOf(request);
+        ResultWriter rowWriter = newResultWriter(plan, format);
+        CrossAssetData assets = loadAssets(plan, startDay, endDay);
+        // Con pocos idnectums los hilos que sobran se reparten los indicadores y tramos de cada uno
+        int maxParts = calculationScheduler.getThreads() / Math.max(1, idNectums.size());
+        TickerParallelism parallelism = useSeriesCache && maxParts > 1 && (partitionMinBars > 0 || parallelIndicators)
+                ? new TickerParallelism(session, maxParts, partitionMinBars, parallelIndicators) : null;
+        // Con gzip cada idnectum se comprime en su hilo de cálculo como un miembro independiente
+        ResponseEncoder.EncodedOutputStream members = outputStream instanceof ResponseEncoder.EncodedOutputStream
+                && ((ResponseEncoder.EncodedOutputStream) outputStream).supportsMembers()
+                ? (ResponseEncoder.EncodedOutputStream) outputStream : null;
+        rowWriter.writeHeader(outputStream);
+
+        // Tareas lanzadas y aún no escritas, en el orden de la petición
+        Deque<CompletableFuture<Future<IdNectumResult>>> pending = new ArrayDeque<>(window);
 
         long startTime = System.currentTimeMillis();
-        List<Future<IdNectumResult>> futures;
+        long firstByteTime = -1;
         try {
-            futures = executor.invokeAll(callables);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("invokeAll fue interrumpido", e);
-        } finally {
-            executor.shutdown(); // No se aceptan más tareas
-        }
-        long parallelEnd = System.currentTimeMillis();
-        log.info("Todas las tareas completadas en paralelo, tiempo transcurrido: {} ms", (parallelEnd - startTime));
-
-        // Recorrer los resultados en el mismo orden que las tareas originales
-        boolean firstId = true;
-        for (int i = 0; i < futures.size(); i++) {
-            Long idnectum = idNectums.get(i);
-            Future<IdNectumResult> future = futures.get(i);
-
-            IdNectumResult result;
-            try {
-                result = future.get();
-            } catch (ExecutionException e) {
-                throw new RuntimeException("Error en hilo para idnectum " + idnectum, e.getCause());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("El hilo principal fue interrumpido al esperar future", e);
+            for (Long id : idNectums) {
+                if (pending.size() >= window) {
+                    writeResult(pending.poll(), outputStream, members);
+                    if (firstByteTime < 0) {
+                        firstByteTime = System.currentTimeMillis();
+                    }
+                }
+                pending.add(submitIdnectum(id, plan, rowWriter, assets, startDay, endDay, members, parallelism,
+                        session, staged));
             }
-
-            // Escribir el JSON resultante para el idnectum
-            if (!firstId) {
-                // Opcional: agregar separador (por ejemplo, salto de línea)
-                // outputStream.write('\n');
+            while (!pending.isEmpty()) {
+                writeResult(pending.poll(), outputStream, members);
+                if (firstByteTime < 0) {
+                    firstByteTime = System.currentTimeMillis();
+                }
             }
-            firstId = false;
-
-            outputStream.write(result.getBytes());
+            rowWriter.writeTrailer(outputStream);
             outputStream.flush();
+        } finally {
+            // Si algo falla (o el cliente se desconecta) se cancela lo que quede en vuelo
+            pending.forEach(DefaultCalculationService::cancel);
         }
 
         long endTime = System.currentTimeMillis();
-        log.info("Fin processConditionsStreamingParallel, tiempo total: {} ms", (endTime - startTime));
+        log.info("Fin processConditionsStreamingParallel ({}), primer idnectum escrito a los {} ms, tiempo total: {} ms",
+                staged ? "staged" : "pool", (firstByteTime - startTime), (endTime - startTime));
     }
 
     /**
-     * Procesa un único idnectum: consulta la DB, pagina, construye el JSON y devuelve el resultado en un array de bytes.
-     * Se ejecuta en un hilo aparte.
+     * Lanza el cálculo de un idnectum.
+     *
+     * - pool: una única tarea en el planificador (carga + cálculo).
+     * - staged: la carga de la serie desde Mongo se hace en CalculationIoExecutor (hilos virtuales
+     *   en Java 21+) y, al terminar, el cálculo se entrega al planificador (hilos = núcleos).
+     *   La entrega es acotada: session.submit bloquea la tarea de E/S mientras la cola está llena.
      */
-    private IdNectumResult processSingleIdNectumToBytes(Long idnectum, ListCastRequest request) throws IOException {
-        long t0 = System.currentTimeMillis();
-
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-
-            // Cabecera JSON: {"idnectum":123,"result":[
-            bos.write(("{\"idnectum\":" + idnectum + ",\"result\":[").getBytes(StandardCharsets.UTF_8));
-
-            boolean firstRecord = true;
-            // Estado acumulado para este idnectum (por ejemplo, running max)
-            Map<String, Object> globalState = new HashMap<>();
-            globalState.put("runningMax", Double.NEGATIVE_INFINITY);
-
-            Date startDate = parseDate(request.getStart());
-            int pageNumber = 0;
-            int pageSize = 1000;
-            while (true) {
-                Page<HistoricalData> page = historicalDataRepository.findByIdnectumAndFechaGreaterThanEqual(
-                        idnectum,
-                        startDate,
-                        PageRequest.of(pageNumber, pageSize)
-                );
-                List<HistoricalData> chunk = page.getContent();
-                if (chunk.isEmpty()) {
-                    break;
-                }
-
-                BarSeries series = ta4jIndicatorService.buildBarSeries(
-                        "idnectum_" + idnectum + "_page_" + pageNumber,
-                        chunk
-                );
-
-                // Cache local de indicadores para la página
-                Map<String, Indicator<Num>> indicatorCache = new HashMap<>();
-
-                // Procesar cada registro de la página
-                for (int i = 0; i < chunk.size(); i++) {
-                    HistoricalData hd = chunk.get(i);
-                    OrderedResultData ord = new OrderedResultData();
-                    ord.addOHLCV(
-                            hd.getOpen(),
-                            hd.getMaximo(),
-                            hd.getMinimo(),
-                            hd.getClose(),
-                            hd.getVolumen() != null ? hd.getVolumen().doubleValue() : 0.0
-                    );
-
-                    if (request.getList_conditions_entry() != null) {
-                        processIndicatorsInOrder(
-                                request.getList_conditions_entry(),
-                                ord,
-                                series,
-                                i,
-                                indicatorCache,
-                                globalState
-                        );
-                    }
-
-                    ord.setFecha(formatDate(hd.getFecha()));
-                    ord.finalizeOrder();
-
-                    if (!firstRecord) {
-                        bos.write(',');
-                    }
-                    firstRecord = false;
-
-                    byte[] rowJson = objectMapper.writeValueAsBytes(ord);
-                    bos.write(rowJson);
-                }
+    private CompletableFuture<Future<IdNectumResult>> submitIdnectum(Long id,
+                                                                     ConditionPlan plan,
+                                                                     ResultWriter rowWriter,
+                                                                     CrossAssetData assets,
+                                                                     long startDay,
+                                                                     long endDay,
+                                                                     ResponseEncoder.EncodedOutputStream members,
+                                                                     TickerParallelism parallelism,
+                                                                     CalculationScheduler.Session session,
+                                                                     boolean staged) {
+        Callable<IdNectumResult> calculation =
+                () -> processSingleIdNectumToBytes(id, plan, rowWriter, assets, startDay, endDay, members, parallelism);
+        if (!staged) {
+            return CompletableFuture.completedFuture(session.submit(calculation));
+        }
+        return calculationIoExecutor.supply(() -> {
+            seriesCacheService.getOrLoad(id);
+            return session.submit(calculation);
+        });
+    }
 
-                if (page.isLast()) {
-                    break;
-                }
-                pageNumber++;
-            }
+    private static void cancel(CompletableFuture<Future<IdNectumResult>> staged) {
+        staged.cancel(true);
+        if (staged.isDone() && !staged.isCompletedExceptionally()) {
+            staged.join().cancel(true);
+        }
+    }
 
-            // Cerrar el objeto JSON
-            bos.write("]}".getBytes(StandardCharsets.UTF_8));
-            bos.write('\n');
+    /**
+     * Espera al resultado de un idnectum y lo escribe (ya comprimido si members no es null).
+     */
+    private void writeResult(CompletableFuture<Future<IdNectumResult>> future, OutputStream outputStream,
+                             ResponseEncoder.EncodedOutputStream members) throws IOException {
+        IdNectumResult result;
+        try {
+            result = future.get().get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error en hilo de cálculo", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("El hilo principal fue interrumpido al esperar future", e);
+        }
 
-            bos.flush();
-            long t1 = System.currentTimeMillis();
+        if (members != null) {
+            members.writeMember(result.getBytes(), result.getLength());
+        } else {
+            outputStream.write(result.getBytes());
+        }
+        outputStream.flush();
+        log.debug("[idnectum={}] >> Escritos {} bytes ({} sin comprimir)",
+                result.getIdnectum(), result.getBytes().length, result.getLength());
+    }
 
-            return new IdNectumResult(idnectum, bos.toByteArray());
+    /**
+     * Procesa un único idnectum: consulta la DB, pagina, construye el JSON y devuelve el resultado en un array de bytes
+     * (un miembro gzip si members no es null). Se ejecuta en un hilo aparte.
+     */
+    private IdNectumResult processSingleIdNectumToBytes(Long idnectum, ConditionPlan plan, ResultWriter rowWriter,
+                                                        CrossAssetData assets, long startDay, long endDay,
+                                                        ResponseEncoder.EncodedOutputStream members,
+                                                        TickerParallelism parallelism) throws IOException {
+        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            streamIdnectum(idnectum, plan, rowWriter, assets, startDay, endDay, bos, parallelism);
+            byte[] bytes = bos.toByteArray();
+            return new IdNectumResult(idnectum, members != null ? members.encodeMember(bytes) : bytes, bytes.length);
         }
     }
 
@@ -426,16 +795,23 @@ public class DefaultCalculationService implements CalculationService {
     private static class IdNectumResult {
         private final Long idnectum;
         private final byte[] bytes;
+        /** Bytes sin comprimir. */
+        private final int length;
 
-        public IdNectumResult(Long idnectum, byte[] bytes) {
+        public IdNectumResult(Long idnectum, byte[] bytes, int length) {
             this.idnectum = idnectum;
             this.bytes = bytes;
+            this.length = length;
         }
 
         public byte[] getBytes() {
             return bytes;
         }
 
+        public int getLength() {
+            return length;
+        }
+
         public Long getIdnectum() {
             return idnectum;
         }
@@ -0,0 +1,266 @@
+package com.nectum.tradingv25.service.calculation.impl;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.nectum.tradingv25.series.BarStore;
+import com.nectum.tradingv25.service.calculation.plan.ConditionPlan;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Escritor de filas precompilado, uno por petición: escribe cada barra directamente en un
+ * JsonGenerator con los nombres de campo ya codificados (SerializedString), sin OrderedResultData,
+ * LinkedHashMap, Double en caja ni un byte[] por fila. Formato por defecto de la respuesta.
+ *
+ * Mismo formato que producía OrderedResultData + ObjectMapper:
+ *  - open, high, low, close (omitidos si faltan, NaN en el BarStore) y volume (entero).
+ *  - Un campo por indicador (columnas de ResultWriter).
+ *    Los NaN se escriben como "NaN" (WRITE_NAN_AS_STRINGS de Jackson).
+ *  - entry_decicion_0..N-1 y fecha "yyyy-MM-dd" al final.
+ *
+ * Con seguimiento de posiciones (condiciones de salida o stopLoss, ver PositionRules) cada fila
+ * lleva además exit_decicion_0..M-1 y position (1, -1 o 0 al cierre) antes de la fecha, y el
+ * objeto del idnectum termina con "trades" (operaciones cerradas) y "summary".
+ */
+final class JsonRowWriter extends ResultWriter {
+
+    private static final SerializedString IDNECTUM = new SerializedString("idnectum");
+    private static final SerializedString RESULT = new SerializedString("result");
+    private static final SerializedString OPEN = new SerializedString("open");
+    private static final SerializedString HIGH = new SerializedString("high");
+    private static final SerializedString LOW = new SerializedString("low");
+    private static final SerializedString CLOSE = new SerializedString("close");
+    private static final SerializedString VOLUME = new SerializedString("volume");
+    private static final SerializedString FECHA = new SerializedString("fecha");
+    private static final SerializedString POSITION = new SerializedString("position");
+    private static final SerializedString TRADES = new SerializedString("trades");
+    private static final SerializedString ENTRY_DATE = new SerializedString("entry_date");
+    private static final SerializedString ENTRY_PRICE = new SerializedString("entry_price");
+    private static final SerializedString EXIT_DATE = new SerializedString("exit_date");
+    private static final SerializedString EXIT_PRICE = new SerializedString("exit_price");
+    private static final SerializedString EXIT_REASON = new SerializedString("exit_reason");
+    private static final SerializedString PROFIT = new SerializedString("profit");
+    private static final SerializedString SUMMARY = new SerializedString("summary");
+    private static final SerializedString WINS = new SerializedString("wins");
+    private static final SerializedString WIN_RATE = new SerializedString("win_rate");
+    private static final SerializedString TOTAL_RETURN = new SerializedString("total_return");
+
+    private final JsonFactory jsonFactory;
+
+    /** Claves JSON ya codificadas de las columnas y decisiones de ResultWriter. */
+    private final SerializedString[] columnKeys;
+    private final SerializedString[] decisionKeys;
+
+    JsonRowWriter(JsonFactory jsonFactory, ConditionPlan plan, int blockSize) {
+        super(plan, blockSize);
+        this.jsonFactory = jsonFactory;
+        this.columnKeys = new SerializedString[columnOperands.length];
+        for (int c = 0; c < columnKeys.length; c++) {
+            columnKeys[c] = columnOperands[c].getColumnKey();
+        }
+        this.decisionKeys = new SerializedString[decisionNames.length];
+        for (int d = 0; d < decisionKeys.length; d++) {
+            decisionKeys[d] = new SerializedString(decisionNames[d]);
+        }
+    }
+
+    /**
+     * Empieza el objeto de un idnectum: {"idnectum":X,"result":[
+     */
+    @Override
+    JsonTicker open(OutputStream outputStream, Long idnectum) throws IOException {
+        JsonGenerator gen = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8);
+        // El stream lo gestiona el llamante: ni se cierra ni se vacía
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        JsonTicker ticker = new JsonTicker(gen, outputStream, false);
+        gen.writeStartObject();
+        gen.writeFieldName(IDNECTUM);
+        if (idnectum != null) {
+            gen.writeNumber(idnectum);
+        } else {
+            gen.writeNull();
+        }
+        gen.writeFieldName(RESULT);
+        gen.writeStartArray();
+        return ticker;
+    }
+
+    /**
+     * Tramo de filas: [fila,fila,...] (appendPart quita los corchetes).
+     */
+    @Override
+    JsonTicker openPart(OutputStream outputStream, Long idnectum) throws IOException {
+        JsonGenerator gen = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        JsonTicker ticker = new JsonTicker(gen, outputStream, true);
+        gen.writeStartArray();
+        return ticker;
+    }
+
+    /**
+     * Salida JSON de un idnectum: una fila por barra.
+     */
+    final class JsonTicker extends Ticker {
+
+        private final JsonGenerator gen;
+        private final OutputStream outputStream;
+        private final boolean part;
+        private final char[] date = new char[10];
+        /** Ya hay filas de tramos pegadas en "result" (la siguiente va con coma). */
+        private boolean appendedRows;
+
+        private JsonTicker(JsonGenerator gen, OutputStream outputStream, boolean part) {
+            this.gen = gen;
+            this.outputStream = outputStream;
+            this.part = part;
+        }
+
+        @Override
+        void writeBlock(BarStore store, int from, int n) throws IOException {
+            for (int row = 0; row < n; row++) {
+                writeRow(store, from + row, row);
+            }
+        }
+
+        /**
+         * Escribe la barra i del store con la fila row del bloque.
+         */
+        private void writeRow(BarStore store, int i, int row) throws IOException {
+            gen.writeStartObject();
+            writePrice(OPEN, store.open(i));
+            writePrice(HIGH, store.high(i));
+            writePrice(LOW, store.low(i));
+            writePrice(CLOSE, store.close(i));
+            gen.writeFieldName(VOLUME);
+            gen.writeNumber(store.volume(i));
+
+            for (int c = 0; c < columnKeys.length; c++) {
+                gen.writeFieldName(columnKeys[c]);
+                gen.writeNumber(columns[columnSlots[c]][row]);
+            }
+            for (int d = 0; d < decisionKeys.length; d++) {
+                gen.writeFieldName(decisionKeys[d]);
+                gen.writeBoolean(decisions[d].get(row));
+            }
+            if (tracksPositions()) {
+                gen.writeFieldName(POSITION);
+                gen.writeNumber(position(store, i, row));
+            }
+
+            gen.writeFieldName(FECHA);
+            gen.writeString(date, 0, formatDate(store.epochDay(i)));
+            gen.writeEndObject();
+        }
+
+        /**
+         * Cierra el array y el objeto del idnectum y añade el salto de línea.
+         */
+        @Override
+        void finish() throws IOException {
+            gen.writeEndArray();
+            if (part) {
+                gen.flush();
+                return;
+            }
+            if (tracksPositions()) {
+                writeTrades(closeTrades());
+            }
+            gen.writeEndObject();
+            gen.flush();
+            outputStream.write('\n');
+        }
+
+        @Override
+        void appendPart(byte[] part) throws IOException {
+            if (part.length <= 2) {
+                return; // "[]"
+            }
+            // Filas del tramo sin sus corchetes, directamente en el stream: el generador solo
+            // escribe después el cierre del array
+            gen.flush();
+            if (appendedRows) {
+                outputStream.write(',');
+            }
+            outputStream.write(part, 1, part.length - 2);
+            appendedRows = true;
+        }
+
+        /**
+         * "trades":[{entry_date, entry_price, exit_date, exit_price, exit_reason, profit}...] y
+         * "summary":{trades, wins, win_rate, total_return}. total_return es compuesto.
+         */
+        private void writeTrades(List<PositionTracker.Trade> trades) throws IOException {
+            gen.writeFieldName(TRADES);
+            gen.writeStartArray();
+            int wins = 0;
+            double equity = 1.0;
+            for (PositionTracker.Trade trade : trades) {
+                gen.writeStartObject();
+                gen.writeFieldName(ENTRY_DATE);
+                gen.writeString(date, 0, formatDate(trade.entryDay));
+                gen.writeFieldName(ENTRY_PRICE);
+                gen.writeNumber(trade.entryPrice);
+                gen.writeFieldName(EXIT_DATE);
+                gen.writeString(date, 0, formatDate(trade.exitDay));
+                gen.writeFieldName(EXIT_PRICE);
+                gen.writeNumber(trade.exitPrice);
+                gen.writeFieldName(EXIT_REASON);
+                gen.writeString(trade.reason.getValue());
+                gen.writeFieldName(PROFIT);
+                gen.writeNumber(trade.profit);
+                gen.writeEndObject();
+                if (trade.profit > 0) {
+                    wins++;
+                }
+                equity *= 1 + trade.profit;
+            }
+            gen.writeEndArray();
+
+            gen.writeFieldName(SUMMARY);
+            gen.writeStartObject();
+            gen.writeFieldName(TRADES);
+            gen.writeNumber(trades.size());
+            gen.writeFieldName(WINS);
+            gen.writeNumber(wins);
+            gen.writeFieldName(WIN_RATE);
+            gen.writeNumber(trades.isEmpty() ? 0.0 : wins / (double) trades.size());
+            gen.writeFieldName(TOTAL_RETURN);
+            gen.writeNumber(equity - 1);
+            gen.writeEndObject();
+        }
+
+        private void writePrice(SerializedString key, double value) throws IOException {
+            // Precio ausente en Mongo: el campo no se escribe
+            if (!Double.isNaN(value)) {
+                gen.writeFieldName(key);
+                gen.writeNumber(value);
+            }
+        }
+
+        /**
+         * yyyy-MM-dd del epochDay (día local ya calculado al construir el BarStore) en el buffer date.
+         */
+        private int formatDate(long epochDay) {
+            LocalDate d = LocalDate.ofEpochDay(epochDay);
+            int year = d.getYear();
+            date[0] = (char) ('0' + year / 1000 % 10);
+            date[1] = (char) ('0' + year / 100 % 10);
+            date[2] = (char) ('0' + year / 10 % 10);
+            date[3] = (char) ('0' + year % 10);
+            date[4] = '-';
+            date[5] = (char) ('0' + d.getMonthValue() / 10);
+            date[6] = (char) ('0' + d.getMonthValue() % 10);
+            date[7] = '-';
+            date[8] = (char) ('0' + d.getDayOfMonth() / 10);
+            date[9] = (char) ('0' + d.getDayOfMonth() % 10);
+            return date.length;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.nectum.tradingv25.service.calculation.impl;
+
+import com.nectum.tradingv25.series.BarStore;
+import com.nectum.tradingv25.service.calculation.plan.PositionRules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seguimiento incremental de la posición de un idnectum (ver PositionRules). Recibe las barras
+ * en orden, a la vez que se escriben, así que el backtest sale en la misma pasada que los
+ * indicadores.
+ *
+ * En cada barra, con posición abierta: primero el stop-loss (low/high de la barra contra el
+ * precio de stop; si la barra abre más allá del stop se sale a la apertura) y después la señal
+ * de salida al cierre. Sin posición: la señal de entrada abre al cierre, salvo en la barra en que
+ * se acaba de cerrar. Los precios no válidos (ausentes, no finitos o <= 0) no abren ni cierran
+ * posiciones: la rentabilidad divide por el precio de entrada.
+ */
+final class PositionTracker {
+
+    enum ExitReason {
+        EXIT("exit"),
+        STOP_LOSS("stop_loss"),
+        END("end");
+
+        private final String value;
+
+        ExitReason(String value) {
+            this.value = value;
+        }
+
+        String getValue() {
+            return value;
+        }
+    }
+
+    static final class Trade {
+        final long entryDay;
+        final double entryPrice;
+        final long exitDay;
+        final double exitPrice;
+        final ExitReason reason;
+        /** Rentabilidad de la operación (0.05 = 5 %), en el sentido de la posición. */
+        final double profit;
+
+        private Trade(long entryDay, double entryPrice, long exitDay, double exitPrice, ExitReason reason, boolean bajista) {
+            this.entryDay = entryDay;
+            this.entryPrice = entryPrice;
+            this.exitDay = exitDay;
+            this.exitPrice = exitPrice;
+            this.reason = reason;
+            this.profit = bajista ? (entryPrice - exitPrice) / entryPrice : (exitPrice - entryPrice) / entryPrice;
+        }
+    }
+
+    private final PositionRules rules;
+    private final List<Trade> trades = new ArrayList<>();
+
+    /** 0 sin posición, 1 larga, -1 corta. */
+    private int position;
+    private long entryDay;
+    private double entryPrice;
+    private double stopPrice;
+
+    private long lastDay;
+    private double lastClose = Double.NaN;
+
+    PositionTracker(PositionRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Procesa la barra i con sus señales y devuelve la posición al cierre.
+     */
+    int onBar(BarStore store, int i, boolean entry, boolean exit) {
+        long day = store.epochDay(i);
+        double close = store.close(i);
+        boolean closed = false;
+
+        if (position != 0 && rules.hasStopLoss()) {
+            double open = store.open(i);
+            if (rules.isBajista()) {
+                double high = isPrice(store.high(i)) ? store.high(i) : close;
+                if (isPrice(high) && high >= stopPrice) {
+                    closeTrade(day, isPrice(open) && open > stopPrice ? open : stopPrice, ExitReason.STOP_LOSS);
+                    closed = true;
+                }
+            } else {
+                double low = isPrice(store.low(i)) ? store.low(i) : close;
+                if (isPrice(low) && low <= stopPrice) {
+                    closeTrade(day, isPrice(open) && open < stopPrice ? open : stopPrice, ExitReason.STOP_LOSS);
+                    closed = true;
+                }
+            }
+        }
+        if (position != 0 && exit && isPrice(close)) {
+            closeTrade(day, close, ExitReason.EXIT);
+            closed = true;
+        }
+        if (position == 0 && !closed && entry && isPrice(close)) {
+            position = rules.isBajista() ? -1 : 1;
+            entryDay = day;
+            entryPrice = close;
+            stopPrice = rules.hasStopLoss() ? rules.stopPrice(close) : Double.NaN;
+        }
+
+        if (isPrice(close)) {
+            lastDay = day;
+            lastClose = close;
+        }
+        return position;
+    }
+
+    /**
+     * Cierra la posición que quede abierta al último cierre válido.
+     */
+    void finish() {
+        if (position != 0 && isPrice(lastClose)) {
+            closeTrade(lastDay, lastClose, ExitReason.END);
+        }
+    }
+
+    List<Trade> getTrades() {
+        return trades;
+    }
+
+    private static boolean isPrice(double price) {
+        return price > 0 && price < Double.POSITIVE_INFINITY;
+    }
+
+    private void closeTrade(long day, double price, ExitReason reason) {
+        trades.add(new Trade(entryDay, entryPrice, day, price, reason, rules.isBajista()));
+        position = 0;
+    }
+}
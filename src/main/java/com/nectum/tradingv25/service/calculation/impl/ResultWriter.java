@@ -0,0 +1,169 @@
+package com.nectum.tradingv25.service.calculation.impl;
+
+import com.nectum.tradingv25.series.BarStore;
+import com.nectum.tradingv25.service.calculation.plan.ConditionPlan;
+import com.nectum.tradingv25.service.calculation.plan.Operand;
+import com.nectum.tradingv25.service.calculation.plan.PositionRules;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escritor de resultados de una petición en un formato de salida (JsonRowWriter o
+ * ColumnarResultWriter). Precalcula a partir del plan qué columnas se escriben y crea un
+ * {@link Ticker} por idnectum con los buffers de un bloque de barras.
+ *
+ * Columnas de indicador: una por nombre. Si dos tienen el mismo nombre queda una sola, en la
+ * posición de su última aparición y con el último valor (como el remove/put de finalizeOrder).
+ */
+abstract class ResultWriter {
+
+    protected final int slotCount;
+    protected final int blockSize;
+
+    /** Columnas de indicador en orden de salida y el hueco de valores que escribe cada una. */
+    protected final Operand[] columnOperands;
+    protected final int[] columnSlots;
+    /** entry_decicion_0..N-1 y, detrás, exit_decicion_0..M-1. */
+    protected final String[] decisionNames;
+    protected final int entryCount;
+    /** null = sin seguimiento de posiciones. */
+    protected final PositionRules positionRules;
+
+    /**
+     * Columnas tomadas del plan (hueco 2*c / 2*c+1 = principal / other de la condición c).
+     *
+     * @param blockSize barras por bloque de columnas (tamaño de los buffers de cada Ticker)
+     */
+    protected ResultWriter(ConditionPlan plan, int blockSize) {
+        this.slotCount = plan.slotCount();
+        this.blockSize = blockSize;
+
+        List<Operand> operands = plan.slots();
+        Map<String, Integer> lastSlot = new HashMap<>();
+        for (int slot = 0; slot < operands.size(); slot++) {
+            if (operands.get(slot) != null) {
+                lastSlot.put(operands.get(slot).getColumnName(), slot);
+            }
+        }
+        List<Operand> columns = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        for (int slot = 0; slot < operands.size(); slot++) {
+            Operand operand = operands.get(slot);
+            if (operand != null && lastSlot.get(operand.getColumnName()) == slot) {
+                columns.add(operand);
+                slots.add(slot);
+            }
+        }
+        this.columnOperands = columns.toArray(new Operand[0]);
+        this.columnSlots = slots.stream().mapToInt(Integer::intValue).toArray();
+
+        this.entryCount = plan.entryCount();
+        this.positionRules = plan.getPositionRules();
+        this.decisionNames = new String[plan.size()];
+        for (int i = 0; i < decisionNames.length; i++) {
+            decisionNames[i] = i < entryCount ? "entry_decicion_" + i : "exit_decicion_" + (i - entryCount);
+        }
+    }
+
+    /**
+     * Cabecera del stream, antes del primer idnectum.
+     */
+    void writeHeader(OutputStream outputStream) throws IOException {
+    }
+
+    /**
+     * Cierre del stream, después del último idnectum.
+     */
+    void writeTrailer(OutputStream outputStream) throws IOException {
+    }
+
+    /**
+     * Empieza la salida de un idnectum.
+     */
+    abstract Ticker open(OutputStream outputStream, Long idnectum) throws IOException;
+
+    /**
+     * Empieza un tramo de barras de un idnectum escrito aparte (en otro hilo): solo sus filas
+     * o lotes, que se pegan después en orden con {@link Ticker#appendPart(byte[])} en el Ticker
+     * de open. Sin seguimiento de posiciones (la posición depende de todas las barras anteriores).
+     */
+    abstract Ticker openPart(OutputStream outputStream, Long idnectum) throws IOException;
+
+    /**
+     * Salida de un idnectum. Buffers de un bloque de barras, reutilizados de bloque en bloque:
+     * columns[hueco][fila] con los valores de cada columna y decisions[c] con un bit por fila.
+     */
+    abstract class Ticker {
+        final double[][] columns = new double[slotCount][blockSize];
+        final BitSet[] decisions = new BitSet[decisionNames.length];
+
+        private final PositionTracker tracker = positionRules != null ? new PositionTracker(positionRules) : null;
+
+        protected Ticker() {
+            for (int d = 0; d < decisions.length; d++) {
+                decisions[d] = new BitSet(blockSize);
+            }
+        }
+
+        int getBlockSize() {
+            return blockSize;
+        }
+
+        /**
+         * Escribe las barras [from, from + n) del store, ya evaluadas en las filas [0, n) del bloque.
+         */
+        abstract void writeBlock(BarStore store, int from, int n) throws IOException;
+
+        /**
+         * Termina la salida del idnectum (o del tramo).
+         */
+        abstract void finish() throws IOException;
+
+        /**
+         * Añade un tramo terminado de openPart con las barras siguientes a las ya escritas.
+         * Un idnectum se escribe entero por tramos o entero con writeBlock, sin mezclar.
+         */
+        abstract void appendPart(byte[] part) throws IOException;
+
+        protected boolean tracksPositions() {
+            return tracker != null;
+        }
+
+        /**
+         * Pasa la barra i (fila row del bloque) al seguimiento de posiciones y devuelve la
+         * posición al cierre. Hay que llamarlo en orden de barras.
+         */
+        protected int position(BarStore store, int i, int row) {
+            return tracker.onBar(store, i, allSet(0, entryCount, row), allSet(entryCount, decisions.length, row));
+        }
+
+        /**
+         * Cierra la posición abierta y devuelve las operaciones del idnectum.
+         */
+        protected List<PositionTracker.Trade> closeTrades() {
+            tracker.finish();
+            return tracker.getTrades();
+        }
+
+        /**
+         * true si las condiciones [from, to) se cumplen en la fila (false si no hay ninguna).
+         */
+        private boolean allSet(int from, int to, int row) {
+            if (from == to) {
+                return false;
+            }
+            for (int d = from; d < to; d++) {
+                if (!decisions[d].get(row)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
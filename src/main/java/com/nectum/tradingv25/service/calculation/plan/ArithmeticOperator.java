@@ -0,0 +1,84 @@
+package com.nectum.tradingv25.service.calculation.plan;
+
+import com.nectum.tradingv25.exception.InvalidConditionException;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Operadores aritméticos de "operador"/"other_operador". Cada uno se enlaza una vez con su
+ * n_operador y queda como un DoubleUnaryOperator que se aplica al valor del indicador.
+ */
+public enum ArithmeticOperator {
+    SUM("sum") {
+        @Override
+        public DoubleUnaryOperator bind(double n) {
+            return v -> v + n;
+        }
+    },
+    REST("rest") {
+        @Override
+        public DoubleUnaryOperator bind(double n) {
+            return v -> v - n;
+        }
+    },
+    MULT("mult") {
+        @Override
+        public DoubleUnaryOperator bind(double n) {
+            return v -> v * n;
+        }
+    },
+    DIV("div") {
+        @Override
+        public DoubleUnaryOperator bind(double n) {
+            return n == 0 ? v -> Double.NaN : v -> v / n;
+        }
+    },
+    POW("pow") {
+        @Override
+        public DoubleUnaryOperator bind(double n) {
+            return v -> Math.pow(v, n);
+        }
+    },
+    ROOT("root") {
+        @Override
+        public DoubleUnaryOperator bind(double n) {
+            if (n == 0) {
+                return v -> Double.NaN;
+            }
+            double exponent = 1.0 / n;
+            return v -> Math.pow(v, exponent);
+        }
+    };
+
+    private final String symbol;
+
+    ArithmeticOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+     * Función v -> v (operador) n. div y root entre 0 dan NaN.
+     */
+    public abstract DoubleUnaryOperator bind(double n);
+
+    /**
+     * Operador de la petición (sin distinguir mayúsculas); null = sum.
+     *
+     * @throws InvalidConditionException si el operador no existe
+     */
+    public static ArithmeticOperator from(String operador) {
+        if (operador == null) {
+            return SUM;
+        }
+        for (ArithmeticOperator op : values()) {
+            if (op.symbol.equalsIgnoreCase(operador)) {
+                return op;
+            }
+        }
+        throw new InvalidConditionException("Operador desconocido: '" + operador + "'");
+    }
+}
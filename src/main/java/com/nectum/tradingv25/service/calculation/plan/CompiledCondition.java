@@ -0,0 +1,61 @@
+package com.nectum.tradingv25.service.calculation.plan;
+
+import com.nectum.tradingv25.model.request.ListCastCondition;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.BitSet;
+
+/**
+ * Una ListCastCondition preparada para evaluarse barra a barra sin volver a leer la petición.
+ */
+@Getter
+public final class CompiledCondition {
+
+    private final Operand main;
+    /** null si la condición compara contra una constante. */
+    private final Operand other;
+    /** Valor de comparación cuando no hay other_indicator (const, 0 si falta). */
+    private final double constant;
+    /** null si la condición no trae logic_operator (decisión siempre false). */
+    private final LogicOperator logicOperator;
+    @Getter(AccessLevel.NONE)
+    private final DoubleBinaryPredicate decision;
+
+    CompiledCondition(ListCastCondition cond) {
+        this.main = new Operand(cond.getIndicator(), cond.getPeriod(), cond.getDay_offset(),
+                cond.getOperador(), cond.getN_operador(), cond.getAsset_name());
+        this.other = cond.getOther_indicator() == null ? null
+                : new Operand(cond.getOther_indicator(), cond.getOther_period(), cond.getOther_day_offset(),
+                cond.getOther_operador(), cond.getOther_n_operador(), cond.getOther_asset_name());
+        this.constant = cond.getConstant() != null ? cond.getConstant() : 0.0;
+        this.logicOperator = LogicOperator.from(cond.getLogic_operator());
+        this.decision = logicOperator != null ? logicOperator.getPredicate() : LogicOperator.NEVER;
+    }
+
+    /**
+     * Decisiones de las n primeras barras de un bloque: bit i = main[i] (logic_operator) comparison[i].
+     * comparison null = se compara contra la constante.
+     */
+    public void decide(double[] main, double[] comparison, int n, BitSet out) {
+        out.clear();
+        if (comparison == null) {
+            double c = constant;
+            for (int i = 0; i < n; i++) {
+                if (decision.test(main[i], c)) {
+                    out.set(i);
+                }
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                if (decision.test(main[i], comparison[i])) {
+                    out.set(i);
+                }
+            }
+        }
+    }
+
+    public boolean hasOther() {
+        return other != null;
+    }
+}
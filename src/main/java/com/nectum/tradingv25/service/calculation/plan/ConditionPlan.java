@@ -0,0 +1,159 @@
+package com.nectum.tradingv25.service.calculation.plan;
+
+import com.nectum.tradingv25.exception.InvalidConditionException;
+import com.nectum.tradingv25.model.request.ListCastCondition;
+import com.nectum.tradingv25.model.request.ListCastRequest;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Condiciones de una petición compiladas una sola vez: nombres de columna (y sus claves JSON),
+ * operadores y periodos/desplazamientos por defecto ya resueltos. Inmutable; se comparte entre
+ * todos los idnectums y hilos de la petición.
+ *
+ * Las condiciones de entrada van primero y detrás las de salida (list_conditions_exit), si las hay.
+ * Huecos de valores: 2*c = indicador principal de la condición c, 2*c+1 = other_indicator.
+ */
+public final class ConditionPlan {
+
+    private final List<CompiledCondition> conditions;
+    private final int entryCount;
+    /** null si la petición no pide seguimiento de posiciones (sin condiciones de salida ni stopLoss). */
+    private final PositionRules positionRules;
+
+    private ConditionPlan(List<CompiledCondition> conditions, int entryCount, PositionRules positionRules) {
+        this.conditions = conditions;
+        this.entryCount = entryCount;
+        this.positionRules = positionRules;
+    }
+
+    /**
+     * Compila y valida las condiciones de entrada.
+     *
+     * @throws InvalidConditionException si alguna trae un operador o logic_operator desconocido o una
+     *                                   fachada sin salida válida
+     */
+    public static ConditionPlan compile(List<ListCastCondition> conditions) {
+        List<CompiledCondition> compiled = new ArrayList<>();
+        compileInto(conditions, "Condición ", compiled);
+        return new ConditionPlan(Collections.unmodifiableList(compiled), compiled.size(), null);
+    }
+
+    /**
+     * Compila entrada, salida y reglas de posición (stopLoss, bajista) de la petición.
+     *
+     * @throws InvalidConditionException como {@link #compile(List)}, o si stopLoss no es válido
+     */
+    public static ConditionPlan compile(ListCastRequest request) {
+        List<CompiledCondition> compiled = new ArrayList<>();
+        compileInto(request.getList_conditions_entry(), "Condición ", compiled);
+        int entryCount = compiled.size();
+        compileInto(request.getList_conditions_exit(), "Condición de salida ", compiled);
+        return new ConditionPlan(Collections.unmodifiableList(compiled), entryCount,
+                PositionRules.from(request, compiled.size() > entryCount));
+    }
+
+    private static void compileInto(List<ListCastCondition> conditions, String label, List<CompiledCondition> out) {
+        if (conditions == null) {
+            return;
+        }
+        for (int i = 0; i < conditions.size(); i++) {
+            try {
+                out.add(new CompiledCondition(conditions.get(i)));
+            } catch (InvalidConditionException e) {
+                throw new InvalidConditionException(label + i + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public List<CompiledCondition> getConditions() {
+        return conditions;
+    }
+
+    public int size() {
+        return conditions.size();
+    }
+
+    /** Condiciones de entrada: [0, entryCount). Las de salida son [entryCount, size()). */
+    public int entryCount() {
+        return entryCount;
+    }
+
+    public int exitCount() {
+        return conditions.size() - entryCount;
+    }
+
+    public PositionRules getPositionRules() {
+        return positionRules;
+    }
+
+    public boolean tracksPositions() {
+        return positionRules != null;
+    }
+
+    public int slotCount() {
+        return 2 * conditions.size();
+    }
+
+    /**
+     * Operando de cada hueco de valores (null = condición sin other_indicator).
+     */
+    public List<Operand> slots() {
+        List<Operand> slots = new ArrayList<>(slotCount());
+        for (CompiledCondition cond : conditions) {
+            slots.add(cond.getMain());
+            slots.add(cond.getOther());
+        }
+        return slots;
+    }
+
+    /**
+     * Barras hacia atrás que necesitan las condiciones: el doble del periodo (varios creadores
+     * usan p * 2) más el day_offset negativo, con un mínimo de minLookback.
+     */
+    public int requiredLookback(int minLookback) {
+        int lookback = minLookback;
+        for (CompiledCondition cond : conditions) {
+            lookback = Math.max(lookback, lookback(cond.getMain()));
+            if (cond.hasOther()) {
+                lookback = Math.max(lookback, lookback(cond.getOther()));
+            }
+        }
+        return lookback;
+    }
+
+    /**
+     * Mayor day_offset positivo de las condiciones (barras futuras que hay que tener cargadas).
+     */
+    public int maxForwardOffset() {
+        int lookahead = 0;
+        for (CompiledCondition cond : conditions) {
+            lookahead = Math.max(lookahead, cond.getMain().getDayOffset());
+            if (cond.hasOther()) {
+                lookahead = Math.max(lookahead, cond.getOther().getDayOffset());
+            }
+        }
+        return lookahead;
+    }
+
+    /**
+     * idnectums distintos de asset_name / other_asset_name, en orden de aparición.
+     */
+    public Set<Long> referencedAssets() {
+        Set<Long> assets = new LinkedHashSet<>();
+        for (Operand operand : slots()) {
+            if (operand != null && operand.isCrossAsset()) {
+                assets.add(operand.getAsset());
+            }
+        }
+        return assets;
+    }
+
+    private static int lookback(Operand operand) {
+        return 2 * operand.getPeriod() - Math.min(0, operand.getDayOffset());
+    }
+}
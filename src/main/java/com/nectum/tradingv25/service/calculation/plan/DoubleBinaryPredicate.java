@@ -0,0 +1,9 @@
+package com.nectum.tradingv25.service.calculation.plan;
+
+/**
+ * Predicado sobre dos double sin autoboxing (java.util.function no trae la versión primitiva).
+ */
+@FunctionalInterface
+public interface DoubleBinaryPredicate {
+    boolean test(double left, double right);
+}
@@ -0,0 +1,51 @@
+package com.nectum.tradingv25.service.calculation.plan;
+
+import com.nectum.tradingv25.exception.InvalidConditionException;
+
+/**
+ * Operadores de comparación de "logic_operator". Con NaN en cualquiera de los lados todas las
+ * comparaciones dan false, igual que antes (NaN < x, NaN == x... son false en IEEE 754).
+ */
+public enum LogicOperator {
+    LT("<", (a, b) -> a < b),
+    LE("<=", (a, b) -> a <= b),
+    EQ("==", (a, b) -> Math.abs(a - b) < 1e-12),
+    GE(">=", (a, b) -> a >= b),
+    GT(">", (a, b) -> a > b);
+
+    /** Condición sin logic_operator: la decisión siempre es false. */
+    public static final DoubleBinaryPredicate NEVER = (a, b) -> false;
+
+    private final String symbol;
+    private final DoubleBinaryPredicate predicate;
+
+    LogicOperator(String symbol, DoubleBinaryPredicate predicate) {
+        this.symbol = symbol;
+        this.predicate = predicate;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public DoubleBinaryPredicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * Operador de la petición; null si no viene.
+     *
+     * @throws InvalidConditionException si el operador no existe
+     */
+    public static LogicOperator from(String logicOperator) {
+        if (logicOperator == null) {
+            return null;
+        }
+        for (LogicOperator op : values()) {
+            if (op.symbol.equals(logicOperator)) {
+                return op;
+            }
+        }
+        throw new InvalidConditionException("logic_operator desconocido: '" + logicOperator + "'");
+    }
+}
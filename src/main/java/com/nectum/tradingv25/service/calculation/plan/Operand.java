@@ -0,0 +1,86 @@
+package com.nectum.tradingv25.service.calculation.plan;
+
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.nectum.tradingv25.exception.InvalidConditionException;
+import com.nectum.tradingv25.indicator.ta4j.IndicatorFactory;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Un lado de una condición (indicador principal u other_indicator) con los valores por defecto
+ * ya aplicados: periodo 14, day_offset 0, operador sum y n_operador 0. El operador queda
+ * enlazado con su n_operador en {@link #applyTo(double[], int, int)}.
+ *
+ * Con asset_name (distinto de 0) el indicador se calcula sobre la serie de ese idnectum y se
+ * alinea por fecha con la del ticker (ver CrossAssetData).
+ */
+@Getter
+public final class Operand {
+
+    /** Nombre tal como llega en la petición (null = sin indicador, vale 0). */
+    private final String indicator;
+    /** Los indicadores "maxh" se leen en la barra actual, sin offset ni operador. */
+    private final boolean maxh;
+    private final int period;
+    private final int dayOffset;
+    private final ArithmeticOperator operador;
+    private final double nOperador;
+    /** idnectum de asset_name; null = la serie del propio ticker. */
+    private final Long asset;
+    @Getter(AccessLevel.NONE)
+    private final DoubleUnaryOperator arithmetic;
+
+    /** Nombre de la columna en la salida y su clave JSON ya codificada. */
+    private final String columnName;
+    private final SerializedString columnKey;
+
+    Operand(String indicator, Integer period, Integer dayOffset, String operador, Double nOperador,
+            Integer assetName) {
+        String invalid = indicator != null ? IndicatorFactory.checkSelectable(indicator) : null;
+        if (invalid != null) {
+            throw new InvalidConditionException(invalid);
+        }
+        this.indicator = indicator;
+        this.maxh = indicator != null && indicator.toLowerCase().contains("maxh");
+        this.period = period != null ? period : 14;
+        this.dayOffset = dayOffset != null ? dayOffset : 0;
+        this.operador = ArithmeticOperator.from(operador);
+        this.nOperador = nOperador != null ? nOperador : 0.0;
+        this.arithmetic = this.operador.bind(this.nOperador);
+        this.asset = assetName != null && assetName != 0 ? Long.valueOf(assetName) : null;
+
+        // Mismo formato que generateIndicatorName: con los valores originales (periodo 0 si falta)
+        this.columnName = String.format(
+                "%d_%s_%d_%s_%d_%d",
+                assetName != null ? assetName : 0,
+                indicator != null ? indicator : "",
+                period != null ? period : 0,
+                operador != null ? operador : "sum",
+                nOperador != null ? nOperador.intValue() : 0,
+                dayOffset != null ? dayOffset : 0
+        );
+        this.columnKey = new SerializedString(columnName);
+    }
+
+    public boolean isCrossAsset() {
+        return asset != null;
+    }
+
+    /**
+     * Operador y n_operador sobre un valor.
+     */
+    public double apply(double value) {
+        return arithmetic.applyAsDouble(value);
+    }
+
+    /**
+     * Aplica operador y n_operador a values[from, to).
+     */
+    public void applyTo(double[] values, int from, int to) {
+        for (int i = from; i < to; i++) {
+            values[i] = arithmetic.applyAsDouble(values[i]);
+        }
+    }
+}
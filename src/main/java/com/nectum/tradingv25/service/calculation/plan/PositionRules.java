@@ -0,0 +1,54 @@
+package com.nectum.tradingv25.service.calculation.plan;
+
+import com.nectum.tradingv25.exception.InvalidConditionException;
+import com.nectum.tradingv25.model.request.ListCastRequest;
+import lombok.Getter;
+
+/**
+ * Reglas del seguimiento de posiciones de una petición:
+ *  - Entrada cuando se cumplen todas las condiciones de entrada, al cierre de la barra.
+ *  - Salida cuando se cumplen todas las de salida (al cierre), al tocar el stop-loss o en la
+ *    última barra emitida (end).
+ *  - bajista = true: posiciones cortas en lugar de largas.
+ *  - stopLoss en porcentaje sobre el precio de entrada (5 = 5 %).
+ */
+@Getter
+public final class PositionRules {
+
+    private final boolean bajista;
+    /** Porcentaje; NaN = sin stop-loss. */
+    private final double stopLoss;
+
+    private PositionRules(boolean bajista, double stopLoss) {
+        this.bajista = bajista;
+        this.stopLoss = stopLoss;
+    }
+
+    /**
+     * null si la petición no trae condiciones de salida ni stopLoss: sin seguimiento de
+     * posiciones la salida es la de siempre.
+     */
+    static PositionRules from(ListCastRequest request, boolean hasExitConditions) {
+        Double stopLoss = request.getStopLoss();
+        if (!hasExitConditions && stopLoss == null) {
+            return null;
+        }
+        boolean bajista = Boolean.TRUE.equals(request.getBajista());
+        if (stopLoss != null && (stopLoss.isNaN() || stopLoss <= 0 || (!bajista && stopLoss >= 100))) {
+            throw new InvalidConditionException("stopLoss debe ser un porcentaje mayor que 0"
+                    + (bajista ? "" : " y menor que 100") + ": " + stopLoss);
+        }
+        return new PositionRules(bajista, stopLoss != null ? stopLoss : Double.NaN);
+    }
+
+    public boolean hasStopLoss() {
+        return !Double.isNaN(stopLoss);
+    }
+
+    /**
+     * Precio de stop de una posición abierta a entryPrice.
+     */
+    public double stopPrice(double entryPrice) {
+        return bajista ? entryPrice * (1 + stopLoss / 100) : entryPrice * (1 - stopLoss / 100);
+    }
+}